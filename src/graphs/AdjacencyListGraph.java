@@ -1,219 +1,327 @@
 package graphs;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.Stack;
-
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Adjacency list graph. Each vertex keeps the ids of its successors and of its
+ * predecessors in AdjacencySets, which are plain arrays for ordinary vertices
+ * and gain a hash index for hub vertices, so adding, finding and removing an
+ * edge take constant time whatever the degree. Neighbours are not kept in
+ * insertion order.
+ *
+ * @param <T>
+ */
 public class AdjacencyListGraph<T> extends Graph<T> {
-	Map<T, Vertex> keyToVertex;
+	VertexDictionary<T> dictionary;
+	List<Vertex> idToVertex;
+	DegreeCounter outDegrees;
+	DegreeCounter inDegrees;
 
 	private class Vertex {
 		T key;
-		List<Vertex> successors;
-		List<Vertex> predecessors;
+		int id;
+		AdjacencySet successors;
+		AdjacencySet predecessors;
 
-		Vertex(T key) {
+		Vertex(T key, int id) {
 			this.key = key;
-			this.successors = new ArrayList<Vertex>();
-			this.predecessors = new ArrayList<Vertex>();
+			this.id = id;
+			this.successors = new AdjacencySet();
+			this.predecessors = new AdjacencySet();
 		}
 	}
 
 	AdjacencyListGraph(Set<T> keys) {
-		this.keyToVertex = new HashMap<T, Vertex>();
-		for (T key : keys) {
-			Vertex v = new Vertex(key);
-			this.keyToVertex.put(key, v);
+		this.dictionary = new VertexDictionary<T>(keys);
+		this.idToVertex = new ArrayList<Vertex>(keys.size());
+		for (int id = 0; id < this.dictionary.size(); id++) {
+			this.idToVertex.add(new Vertex(this.dictionary.keyOf(id), id));
 		}
+		this.outDegrees = new DegreeCounter(this.idToVertex.size());
+		this.inDegrees = new DegreeCounter(this.idToVertex.size());
+	}
+
+	private Vertex vertex(int id) {
+		return this.idToVertex.get(checkId(id));
 	}
 
 	@Override
 	public int size() {
-		return keyToVertex.size();
+		return this.idToVertex.size();
 	}
 
 	@Override
 	public int numEdges() {
-		int edges = 0;
-		for (T key : this.keyToVertex.keySet()) {
-			edges += this.keyToVertex.get(key).successors.size();
-		}
-		return edges;
+		return this.outDegrees.total();
 	}
 
 	@Override
 	public boolean addEdge(T from, T to) {
-		if (this.keyToVertex.get(from) == null || this.keyToVertex.get(to) == null) {
-			throw new NoSuchElementException();
-		}
+		return addEdgeById(requireId(from), requireId(to));
+	}
 
-		if (this.keyToVertex.get(from).successors.contains(keyToVertex.get(to))
-				|| this.keyToVertex.get(to).predecessors.contains(keyToVertex.get(from))) {
+	@Override
+	public boolean addEdgeById(int from, int to) {
+		Vertex u = vertex(from);
+		Vertex w = vertex(to);
+		if (!u.successors.add(to)) {
 			return false;
 		}
+		w.predecessors.add(from);
+		this.outDegrees.increment(from);
+		this.inDegrees.increment(to);
 
-		this.keyToVertex.get(from).successors.add(keyToVertex.get(to));
-		this.keyToVertex.get(to).predecessors.add(keyToVertex.get(from));
-
+		edgesChanged();
 		return true;
 	}
 
+	/**
+	 * Reserves room in every adjacency set the batch grows before adding to
+	 * it, so no set is resized or rehashed more than once.
+	 */
+	@Override
+	BulkAddResult mergeEdges(EdgeBatch batch) {
+		int[] incoming = new int[size()];
+		for (int w : batch.targets) {
+			incoming[w]++;
+		}
+		for (int w = 0; w < incoming.length; w++) {
+			if (incoming[w] > 0) {
+				this.idToVertex.get(w).predecessors.reserve(incoming[w]);
+			}
+		}
+		int added = 0;
+		for (int v = 0; v < size(); v++) {
+			int start = batch.offsets[v];
+			int end = batch.offsets[v + 1];
+			if (start == end) {
+				continue;
+			}
+			AdjacencySet successors = this.idToVertex.get(v).successors;
+			successors.reserve(end - start);
+			for (int i = start; i < end; i++) {
+				int w = batch.targets[i];
+				if (successors.add(w)) {
+					this.idToVertex.get(w).predecessors.add(v);
+					this.outDegrees.increment(v);
+					this.inDegrees.increment(w);
+					added++;
+				}
+			}
+		}
+		if (added > 0) {
+			edgesChanged();
+		}
+		return new BulkAddResult(added, batch.received - added);
+	}
+
 	@Override
 	public boolean hasVertex(T key) {
-		return this.keyToVertex.containsKey(key);
+		return this.dictionary.idOf(key) != -1;
 	}
 
 	@Override
 	public boolean hasEdge(T from, T to) throws NoSuchElementException {
-		if (this.keyToVertex.get(from) == null || this.keyToVertex.get(to) == null) {
-			throw new NoSuchElementException();
-		}
+		return hasEdgeById(requireId(from), requireId(to));
+	}
 
-		return this.keyToVertex.get(from).successors.contains(keyToVertex.get(to))
-				&& this.keyToVertex.get(to).predecessors.contains(keyToVertex.get(from));
+	@Override
+	public boolean hasEdgeById(int from, int to) throws NoSuchElementException {
+		return vertex(from).successors.contains(vertex(to).id);
 	}
 
 	@Override
 	public boolean removeEdge(T from, T to) throws NoSuchElementException {
-		if (this.keyToVertex.get(from) == null || this.keyToVertex.get(to) == null) {
-			throw new NoSuchElementException();
-		}
+		return removeEdgeById(requireId(from), requireId(to));
+	}
 
-		if (!this.keyToVertex.get(from).successors.contains(keyToVertex.get(to))
-				&& !this.keyToVertex.get(to).predecessors.contains(keyToVertex.get(from))) {
+	@Override
+	public boolean removeEdgeById(int from, int to) throws NoSuchElementException {
+		Vertex u = vertex(from);
+		Vertex w = vertex(to);
+		if (!u.successors.remove(to)) {
 			return false;
 		}
-
-		this.keyToVertex.get(from).successors.remove(keyToVertex.get(to));
-		this.keyToVertex.get(to).predecessors.remove(keyToVertex.get(from));
+		w.predecessors.remove(from);
+		this.outDegrees.decrement(from);
+		this.inDegrees.decrement(to);
+		edgesChanged();
 		return true;
 	}
 
 	@Override
 	public int outDegree(T key) {
-		if (this.keyToVertex.get(key) == null) {
-			throw new NoSuchElementException();
-		}
+		return outDegreeById(requireId(key));
+	}
 
-		return this.keyToVertex.get(key).successors.size();
+	@Override
+	public int outDegreeById(int id) {
+		return vertex(id).successors.size();
 	}
 
 	@Override
 	public int inDegree(T key) {
-		if (this.keyToVertex.get(key) == null) {
-			throw new NoSuchElementException();
-		}
+		return inDegreeById(requireId(key));
+	}
 
-		return this.keyToVertex.get(key).predecessors.size();
+	@Override
+	public int inDegreeById(int id) {
+		return vertex(id).predecessors.size();
+	}
+
+	@Override
+	public DegreeDistribution outDegreeDistribution() {
+		return this.outDegrees.distribution();
+	}
+
+	@Override
+	public DegreeDistribution inDegreeDistribution() {
+		return this.inDegrees.distribution();
 	}
 
 	@Override
 	public Set<T> keySet() {
-		return this.keyToVertex.keySet();
+		return this.dictionary.keySet();
 	}
 
 	@Override
 	public Set<T> successorSet(T key) {
+		return toKeySet(vertex(requireId(key)).successors);
+	}
+
+	@Override
+	public Set<T> predecessorSet(T key) {
+		return toKeySet(vertex(requireId(key)).predecessors);
+	}
+
+	private Set<T> toKeySet(AdjacencySet ids) {
 		Set<T> set = new HashSet<T>();
-		if (this.keyToVertex.get(key) == null) {
-			throw new NoSuchElementException();
+		for (int i = 0; i < ids.size(); i++) {
+			set.add(this.idToVertex.get(ids.get(i)).key);
 		}
-		
-		int size = this.keyToVertex.get(key).successors.size();
-		List<AdjacencyListGraph<T>.Vertex> successors = this.keyToVertex.get(key).successors;
+		return set;
+	}
 
-		for (int i = 0; i < size; i++) {
-			set.add(successors.get(i).key);
+	@Override
+	public void forEachSuccessor(T key, Consumer<? super T> action) {
+		AdjacencySet successors = vertex(requireId(key)).successors;
+		for (int i = 0; i < successors.size(); i++) {
+			action.accept(this.idToVertex.get(successors.get(i)).key);
 		}
-		return set;
 	}
 
 	@Override
-	public Set<T> predecessorSet(T key) {
-		Set<T> set = new HashSet<T>();
-		if (this.keyToVertex.get(key) == null) {
-			throw new NoSuchElementException();
+	public void forEachPredecessor(T key, Consumer<? super T> action) {
+		AdjacencySet predecessors = vertex(requireId(key)).predecessors;
+		for (int i = 0; i < predecessors.size(); i++) {
+			action.accept(this.idToVertex.get(predecessors.get(i)).key);
 		}
+	}
 
-		for (int i = 0; i < this.keyToVertex.get(key).predecessors.size(); i++) {
-			set.add(this.keyToVertex.get(key).predecessors.get(i).key);
+	@Override
+	public void forEachSuccessorById(int id, IntConsumer action) {
+		AdjacencySet successors = vertex(id).successors;
+		for (int i = 0; i < successors.size(); i++) {
+			action.accept(successors.get(i));
 		}
-		return set;
 	}
 
 	@Override
-	public Iterator<T> successorIterator(T key) {
-		if (this.keyToVertex.get(key) == null) {
-			throw new NoSuchElementException();
+	public void forEachPredecessorById(int id, IntConsumer action) {
+		AdjacencySet predecessors = vertex(id).predecessors;
+		for (int i = 0; i < predecessors.size(); i++) {
+			action.accept(predecessors.get(i));
 		}
-		return new SuccessorIterator(this, key);
 	}
 
-	class SuccessorIterator implements Iterator<T> {
-		AdjacencyListGraph<T> graph;
-		T key;
-		int successorsSize, numSuccessorsFound;
-		int lastSuccessorIndex;
+	@Override
+	public Iterator<T> successorIterator(T key) {
+		return new NeighborIterator(vertex(requireId(key)).successors);
+	}
 
-		public SuccessorIterator(AdjacencyListGraph<T> adjacencyListGraph, T key) {
-			this.graph = adjacencyListGraph;
-			this.key = key;
-			this.successorsSize = this.graph.keyToVertex.get(key).successors.size();
-			this.numSuccessorsFound = 0;
-			this.lastSuccessorIndex = -1;
+	@Override
+	public Iterator<T> predecessorIterator(T key) {
+		return new NeighborIterator(vertex(requireId(key)).predecessors);
+	}
+
+	class NeighborIterator implements Iterator<T> {
+		AdjacencySet neighbors;
+		int size, position;
+
+		public NeighborIterator(AdjacencySet neighbors) {
+			this.neighbors = neighbors;
+			this.size = neighbors.size();
+			this.position = 0;
 		}
 
 		@Override
 		public boolean hasNext() {
-			return numSuccessorsFound < successorsSize;
+			return this.position < this.size;
 		}
 
 		@Override
 		public T next() {
-			this.lastSuccessorIndex++;
-			this.numSuccessorsFound++;
-			return this.graph.keyToVertex.get(key).successors.get(lastSuccessorIndex).key;
+			if (this.position >= this.size) {
+				throw new NoSuchElementException();
+			}
+			return idToVertex.get(this.neighbors.get(this.position++)).key;
 		}
 	}
 
 	@Override
-	public Iterator<T> predecessorIterator(T key) {
-		if (this.keyToVertex.get(key) == null) {
-			throw new NoSuchElementException();
-		}
-		return new PredecessorIterator(this, key);
+	public int idOf(T key) {
+		return this.dictionary.idOf(key);
 	}
 
-	class PredecessorIterator implements Iterator<T> {
-		AdjacencyListGraph<T> graph;
-		T key;
-		int predecessorsSize, numPredecessorsFound;
-		int lastPredecessorIndex;
+	@Override
+	public T keyOf(int id) {
+		return vertex(id).key;
+	}
 
-		public PredecessorIterator(AdjacencyListGraph<T> adjacencyListGraph, T key) {
-			this.graph = adjacencyListGraph;
-			this.key = key;
-			this.predecessorsSize = this.graph.keyToVertex.get(key).predecessors.size();
-			this.numPredecessorsFound = 0;
-			this.lastPredecessorIndex = -1;
+	@Override
+	public IdCursor successorCursor() {
+		return new NeighborCursor(true);
+	}
+
+	@Override
+	public IdCursor predecessorCursor() {
+		return new NeighborCursor(false);
+	}
+
+	class NeighborCursor implements IdCursor {
+		boolean successors;
+		int[] neighbors;
+		int size, position;
+
+		NeighborCursor(boolean successors) {
+			this.successors = successors;
+		}
+
+		@Override
+		public IdCursor reset(int id) {
+			Vertex v = idToVertex.get(id);
+			AdjacencySet neighbors = this.successors ? v.successors : v.predecessors;
+			this.neighbors = neighbors.ids;
+			this.size = neighbors.size();
+			this.position = 0;
+			return this;
 		}
 
 		@Override
 		public boolean hasNext() {
-			return numPredecessorsFound < predecessorsSize;
+			return this.position < this.size;
 		}
 
 		@Override
-		public T next() {
-			this.lastPredecessorIndex++;
-			this.numPredecessorsFound++;
-			return this.graph.keyToVertex.get(key).predecessors.get(lastPredecessorIndex).key;
+		public int next() {
+			return this.neighbors[this.position++];
 		}
 	}
 }
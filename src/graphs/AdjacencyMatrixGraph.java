@@ -1,34 +1,102 @@
 package graphs;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Queue;
 import java.util.Set;
-import java.util.Stack;
-
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Adjacency matrix graph. Each row of the matrix is a bitset packed into longs,
+ * so bit (j % 64) of matrix[i][j / 64] is set when there is an edge from vertex
+ * i to vertex j. The iterators skip over empty stretches with
+ * Long.numberOfTrailingZeros. In- and out-degrees and the edge count are kept
+ * in DegreeCounters as edges are added and removed, so reading them does not
+ * scan the matrix.
+ *
+ * Predecessor queries walk a column, touching one word in every row. A graph
+ * built with a column index also keeps the transposed matrix, whose row j is
+ * column j of the matrix, updated on every add and remove. That doubles the
+ * memory and the cost of a write, and in return predecessors are read from a
+ * row as fast as successors are.
+ *
+ * @param <T>
+ */
 public class AdjacencyMatrixGraph<T> extends Graph<T> {
-	Map<T, Integer> keyToIndex;
-	List<T> indexToKey;
-	int[][] matrix;
+	VertexDictionary<T> dictionary;
+	long[][] matrix;
+	/** The transpose of matrix, or null if the graph has no column index. */
+	long[][] columns;
+	DegreeCounter outDegrees;
+	DegreeCounter inDegrees;
 
 	AdjacencyMatrixGraph(Set<T> keys) {
-		int size = keys.size();
-		this.keyToIndex = new HashMap<T, Integer>();
-		this.indexToKey = new ArrayList<T>();
-		this.matrix = new int[size][size];
-		// need to populate keyToIndex and indexToKey with info from keys
-		int index = 0;
-		for (T key : keys) {
-			this.keyToIndex.put(key, index);
-			this.indexToKey.add(key);
-			index++;
+		this(keys, false);
+	}
+
+	/**
+	 * @param keys
+	 * @param columnIndex whether to keep the transposed matrix for predecessor
+	 *                    queries
+	 */
+	AdjacencyMatrixGraph(Set<T> keys, boolean columnIndex) {
+		this.dictionary = new VertexDictionary<T>(keys);
+		int size = this.dictionary.size();
+		this.matrix = new long[size][(size + 63) >>> 6];
+		if (columnIndex) {
+			this.columns = new long[size][(size + 63) >>> 6];
+		}
+		this.outDegrees = new DegreeCounter(size);
+		this.inDegrees = new DegreeCounter(size);
+	}
+
+	/**
+	 * @return whether the graph keeps a transposed copy for predecessor queries
+	 */
+	public boolean hasColumnIndex() {
+		return this.columns != null;
+	}
+
+	private boolean isSet(int row, int column) {
+		return (this.matrix[row][column >>> 6] & (1L << column)) != 0;
+	}
+
+	/**
+	 * Finds the first set bit of the row at or after the given column.
+	 * 
+	 * @return the column of that bit, or -1 if there is none
+	 */
+	private static int nextSetBit(long[] row, int column) {
+		int word = column >>> 6;
+		if (word >= row.length) {
+			return -1;
+		}
+		long bits = row[word] & (-1L << column);
+		while (bits == 0) {
+			if (++word == row.length) {
+				return -1;
+			}
+			bits = row[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Finds the first row at or after the given row that has the column's bit
+	 * set.
+	 * 
+	 * @return that row, or -1 if there is none
+	 */
+	private int nextSetRow(int column, int row) {
+		int word = column >>> 6;
+		long mask = 1L << column;
+		for (int i = row; i < this.matrix.length; i++) {
+			if ((this.matrix[i][word] & mask) != 0) {
+				return i;
+			}
 		}
+		return -1;
 	}
 
 	@Override
@@ -38,217 +106,348 @@ public class AdjacencyMatrixGraph<T> extends Graph<T> {
 
 	@Override
 	public int numEdges() {
-		int edges = 0;
-
-		for (int i = 0; i < this.matrix.length; i++) {
-			for (int j = 0; j < this.matrix[i].length; j++) {
-				if (this.matrix[i][j] == 1) {
-					edges++;
-				}
-			}
-		}
-		return edges;
+		return this.outDegrees.total();
 	}
 
 	@Override
 	public boolean addEdge(T from, T to) throws NoSuchElementException {
-		if (this.keyToIndex.get(from) == null || this.keyToIndex.get(to) == null) {
-			throw new NoSuchElementException();
-		}
-		if (this.matrix[this.keyToIndex.get(from)][this.keyToIndex.get(to)] == 1) {
+		return addEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean addEdgeById(int row, int column) throws NoSuchElementException {
+		checkId(row);
+		checkId(column);
+		if (isSet(row, column)) {
 			return false;
 		}
-		this.matrix[this.keyToIndex.get(from)][this.keyToIndex.get(to)] = 1;
+		this.matrix[row][column >>> 6] |= 1L << column;
+		if (this.columns != null) {
+			this.columns[column][row >>> 6] |= 1L << row;
+		}
+		this.outDegrees.increment(row);
+		this.inDegrees.increment(column);
+		edgesChanged();
 		return true;
 	}
 
+	@Override
+	BulkAddResult mergeEdges(EdgeBatch batch) {
+		int added = 0;
+		for (int row = 0; row < this.matrix.length; row++) {
+			long[] bits = this.matrix[row];
+			for (int i = batch.offsets[row]; i < batch.offsets[row + 1]; i++) {
+				int column = batch.targets[i];
+				if ((bits[column >>> 6] & (1L << column)) == 0) {
+					bits[column >>> 6] |= 1L << column;
+					if (this.columns != null) {
+						this.columns[column][row >>> 6] |= 1L << row;
+					}
+					this.outDegrees.increment(row);
+					this.inDegrees.increment(column);
+					added++;
+				}
+			}
+		}
+		if (added > 0) {
+			edgesChanged();
+		}
+		return new BulkAddResult(added, batch.received - added);
+	}
+
 	@Override
 	public boolean hasVertex(T key) {
-		return this.keyToIndex.get(key) != null;
+		return this.dictionary.idOf(key) != -1;
 	}
 
 	@Override
 	public boolean hasEdge(T from, T to) throws NoSuchElementException {
-		if (this.keyToIndex.get(from) == null || this.keyToIndex.get(to) == null) {
-			throw new NoSuchElementException();
-		}
-		return this.matrix[this.keyToIndex.get(from)][this.keyToIndex.get(to)] == 1;
+		return hasEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean hasEdgeById(int row, int column) throws NoSuchElementException {
+		checkId(row);
+		checkId(column);
+		return isSet(row, column);
 	}
 
 	@Override
 	public boolean removeEdge(T from, T to) throws NoSuchElementException {
-		if (this.keyToIndex.get(from) == null || this.keyToIndex.get(to) == null) {
-			throw new NoSuchElementException();
-		}
-		if (this.matrix[this.keyToIndex.get(from)][this.keyToIndex.get(to)] == 0) {
+		return removeEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean removeEdgeById(int row, int column) throws NoSuchElementException {
+		checkId(row);
+		checkId(column);
+		if (!isSet(row, column)) {
 			return false;
 		}
-		this.matrix[this.keyToIndex.get(from)][this.keyToIndex.get(to)] = 0;
+		this.matrix[row][column >>> 6] &= ~(1L << column);
+		if (this.columns != null) {
+			this.columns[column][row >>> 6] &= ~(1L << row);
+		}
+		this.outDegrees.decrement(row);
+		this.inDegrees.decrement(column);
+		edgesChanged();
 		return true;
 	}
 
 	@Override
 	public int outDegree(T key) {
-		int outDegree = 0;
+		return outDegreeById(requireId(key));
+	}
 
-		if (this.keyToIndex.get(key) == null) {
-			throw new NoSuchElementException();
-		}
-		int row = this.keyToIndex.get(key);
-		for (int i = 0; i < this.matrix[row].length; i++) {
-			if (this.matrix[row][i] == 1) {
-				outDegree++;
-			}
-		}
-		return outDegree;
+	@Override
+	public int outDegreeById(int id) {
+		return this.outDegrees.degree(checkId(id));
 	}
 
 	@Override
 	public int inDegree(T key) {
-		int inDegree = 0;
+		return inDegreeById(requireId(key));
+	}
 
-		if (this.keyToIndex.get(key) == null) {
-			throw new NoSuchElementException();
-		}
-		for (int i = 0; i < this.matrix[this.keyToIndex.get(key)].length; i++) {
-			if (this.matrix[i][this.keyToIndex.get(key)] == 1) {
-				inDegree++;
-			}
-		}
-		return inDegree;
+	@Override
+	public int inDegreeById(int column) {
+		return this.inDegrees.degree(checkId(column));
+	}
+
+	@Override
+	public DegreeDistribution outDegreeDistribution() {
+		return this.outDegrees.distribution();
+	}
+
+	@Override
+	public DegreeDistribution inDegreeDistribution() {
+		return this.inDegrees.distribution();
 	}
 
 	@Override
 	public Set<T> keySet() {
-		return keyToIndex.keySet();
+		return this.dictionary.keySet();
 	}
 
 	@Override
 	public Set<T> successorSet(T key) {
-
 		Set<T> set = new HashSet<T>();
 
-		if (this.keyToIndex.get(key) == null) {
-			throw new NoSuchElementException();
+		long[] row = this.matrix[requireId(key)];
+		for (int i = nextSetBit(row, 0); i != -1; i = nextSetBit(row, i + 1)) {
+			set.add(this.dictionary.keyOf(i));
 		}
+		return set;
+	}
 
-		for (int i = 0; i < this.matrix[this.keyToIndex.get(key)].length; i++) {
-			if (this.matrix[this.keyToIndex.get(key)][i] == 1) {
-				set.add(indexToKey.get(i));
+	@Override
+	public Set<T> predecessorSet(T key) {
+		Set<T> set = new HashSet<T>();
+
+		int column = requireId(key);
+		if (this.columns != null) {
+			long[] row = this.columns[column];
+			for (int i = nextSetBit(row, 0); i != -1; i = nextSetBit(row, i + 1)) {
+				set.add(this.dictionary.keyOf(i));
 			}
+			return set;
+		}
+		for (int i = nextSetRow(column, 0); i != -1; i = nextSetRow(column, i + 1)) {
+			set.add(this.dictionary.keyOf(i));
 		}
-
 		return set;
 	}
 
 	@Override
-	public Set<T> predecessorSet(T key) {
-		Set<T> set = new HashSet<T>();
+	public void forEachSuccessor(T key, Consumer<? super T> action) {
+		forEachSuccessorById(requireId(key), id -> action.accept(this.dictionary.keyOf(id)));
+	}
+
+	@Override
+	public void forEachPredecessor(T key, Consumer<? super T> action) {
+		forEachPredecessorById(requireId(key), id -> action.accept(this.dictionary.keyOf(id)));
+	}
+
+	@Override
+	public void forEachSuccessorById(int id, IntConsumer action) {
+		forEachSetBit(this.matrix[checkId(id)], action);
+	}
 
-		if (this.keyToIndex.get(key) == null) {
-			throw new NoSuchElementException();
+	/**
+	 * Walks a row a word at a time, clearing the lowest set bit after each
+	 * column it passes to the action.
+	 */
+	private static void forEachSetBit(long[] row, IntConsumer action) {
+		for (int word = 0; word < row.length; word++) {
+			for (long bits = row[word]; bits != 0; bits &= bits - 1) {
+				action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+			}
 		}
+	}
 
-		for (int i = 0; i < this.matrix[this.keyToIndex.get(key)].length; i++) {
-			if (this.matrix[i][this.keyToIndex.get(key)] == 1) {
-				set.add(indexToKey.get(i));
+	@Override
+	public void forEachPredecessorById(int id, IntConsumer action) {
+		if (this.columns != null) {
+			forEachSetBit(this.columns[checkId(id)], action);
+			return;
+		}
+		int word = checkId(id) >>> 6;
+		long mask = 1L << id;
+		for (int i = 0; i < this.matrix.length; i++) {
+			if ((this.matrix[i][word] & mask) != 0) {
+				action.accept(i);
 			}
 		}
-		return set;
 	}
 
 	@Override
 	public Iterator<T> successorIterator(T key) {
-		// TODO Auto-generated method stub
-		if (this.keyToIndex.get(key) == null) {
-			throw new NoSuchElementException();
-		}
-		return new SuccessorIterator(this, key);
+		return new RowIterator(this, this.matrix[requireId(key)]);
 	}
 
-	class SuccessorIterator implements Iterator<T> {
+	/**
+	 * Iterates over the set bits of one row, of the matrix for successors or of
+	 * the column index for predecessors.
+	 */
+	class RowIterator implements Iterator<T> {
 		AdjacencyMatrixGraph<T> matrixGraph;
-		T key;
-		int[] row;
-		int lastSuccessorIndex;
+		long[] row;
+		int nextIndex;
 
-		public SuccessorIterator(AdjacencyMatrixGraph<T> adjacencyMatrixGraph, T key) {
+		public RowIterator(AdjacencyMatrixGraph<T> adjacencyMatrixGraph, long[] row) {
 			this.matrixGraph = adjacencyMatrixGraph;
-			this.key = key;
-			this.row = matrix[matrixGraph.keyToIndex.get(key)];
-			this.lastSuccessorIndex = -1;
-
+			this.row = row;
+			this.nextIndex = nextSetBit(this.row, 0);
 		}
 
 		@Override
 		public boolean hasNext() {
-			for (int i = lastSuccessorIndex + 1; i < this.row.length; i++) {
-				if (this.row[i] == 1) {
-					return true;
-				}
-			}
-			return false;
+			return this.nextIndex != -1;
 		}
 
 		@Override
-		public T next() { // Track where in hashset you are.
-
-			for (int i = 0; i < this.row.length; i++) {
-				if (this.row[i] == 1 && i > lastSuccessorIndex) {
-					this.lastSuccessorIndex = i;
-					return this.matrixGraph.indexToKey.get(i);
-				}
+		public T next() {
+			if (this.nextIndex == -1) {
+				throw new NoSuchElementException();
 			}
-
-			throw new NoSuchElementException();
+			T key = this.matrixGraph.dictionary.keyOf(this.nextIndex);
+			this.nextIndex = nextSetBit(this.row, this.nextIndex + 1);
+			return key;
 		}
 
 	}
 
 	@Override
 	public Iterator<T> predecessorIterator(T key) {
-		// TODO Auto-generated method stub
-		if (this.keyToIndex.get(key) == null) {
-			throw new NoSuchElementException();
+		int column = requireId(key);
+		if (this.columns != null) {
+			return new RowIterator(this, this.columns[column]);
 		}
-		return new PredecessorIterator(this, key);
+		return new PredecessorIterator(this, column);
 	}
 
 	class PredecessorIterator implements Iterator<T> {
 		AdjacencyMatrixGraph<T> matrixGraph;
-		T key;
-		int[] column;
-		int lastPredecessorIndex;
+		int column;
+		int nextPredecessorIndex;
 
-		public PredecessorIterator(AdjacencyMatrixGraph<T> adjacencyMatrixGraph, T key) {
+		public PredecessorIterator(AdjacencyMatrixGraph<T> adjacencyMatrixGraph, int index) {
 			this.matrixGraph = adjacencyMatrixGraph;
-			this.key = key;
-			this.column = matrix[matrixGraph.keyToIndex.get(key)];
-			this.lastPredecessorIndex = -1;
-
+			this.column = index;
+			this.nextPredecessorIndex = this.matrixGraph.nextSetRow(this.column, 0);
 		}
 
 		@Override
 		public boolean hasNext() {
-			for (int i = lastPredecessorIndex + 1; i < this.column.length; i++) {
-				if (this.matrixGraph.matrix[i][matrixGraph.keyToIndex.get(key)] == 1) {
-					return true;
-				}
-			}
-			return false;
+			return this.nextPredecessorIndex != -1;
 		}
 
 		@Override
 		public T next() {
-			for (int i = 0; i < this.column.length; i++) {
-				if (this.matrixGraph.matrix[i][matrixGraph.keyToIndex.get(key)] == 1 && i > lastPredecessorIndex) {
-					this.lastPredecessorIndex = i;
-					return this.matrixGraph.indexToKey.get(i);
-				}
+			if (this.nextPredecessorIndex == -1) {
+				throw new NoSuchElementException();
 			}
+			T key = this.matrixGraph.dictionary.keyOf(this.nextPredecessorIndex);
+			this.nextPredecessorIndex = this.matrixGraph.nextSetRow(this.column, this.nextPredecessorIndex + 1);
+			return key;
+		}
+
+	}
+
+	@Override
+	public int idOf(T key) {
+		return this.dictionary.idOf(key);
+	}
+
+	@Override
+	public T keyOf(int id) {
+		return this.dictionary.keyOf(id);
+	}
+
+	@Override
+	public IdCursor successorCursor() {
+		return new RowCursor(this.matrix);
+	}
 
-			throw new NoSuchElementException();
+	/**
+	 * Cursor over the set bits of the rows of matrix, or of columns.
+	 */
+	private static class RowCursor implements IdCursor {
+		long[][] rows;
+		long[] row;
+		int next;
+
+		RowCursor(long[][] rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public IdCursor reset(int id) {
+			this.row = this.rows[id];
+			this.next = nextSetBit(this.row, 0);
+			return this;
 		}
 
+		@Override
+		public boolean hasNext() {
+			return this.next != -1;
+		}
+
+		@Override
+		public int next() {
+			int current = this.next;
+			this.next = nextSetBit(this.row, current + 1);
+			return current;
+		}
+	}
+
+	@Override
+	public IdCursor predecessorCursor() {
+		if (this.columns != null) {
+			return new RowCursor(this.columns);
+		}
+		return new IdCursor() {
+			int column;
+			int next;
+
+			@Override
+			public IdCursor reset(int id) {
+				this.column = id;
+				this.next = nextSetRow(id, 0);
+				return this;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return this.next != -1;
+			}
+
+			@Override
+			public int next() {
+				int current = this.next;
+				this.next = nextSetRow(this.column, current + 1);
+				return current;
+			}
+		};
 	}
 }
@@ -0,0 +1,197 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * The neighbours of one vertex as a set of vertex ids, used by
+ * AdjacencyListGraph. The ids sit densely in ids[0 .. size() - 1], so walking
+ * them is a plain array scan, but their order is not kept: remove moves the
+ * last id into the hole it leaves.
+ *
+ * A small set is only the array, and contains scans it. Once the set grows
+ * past HASH_THRESHOLD ids it also keeps a position index, an open-addressing
+ * table from id to position in the array with linear probing, so contains, add
+ * and remove take constant time however large a hub vertex becomes. The index
+ * is dropped again if the set shrinks well below the threshold.
+ */
+final class AdjacencySet {
+	static final int HASH_THRESHOLD = 16;
+	private static final int[] EMPTY = new int[0];
+
+	int[] ids = EMPTY;
+	private int size;
+	/** Positions in ids by hash of the id, -1 for empty slots; null if small. */
+	private int[] slots;
+
+	/**
+	 * @return the number of ids in the set
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param i
+	 * @return the id at position i, which must be in [0, size())
+	 */
+	int get(int i) {
+		return this.ids[i];
+	}
+
+	/**
+	 * @param id
+	 * @return the position of id in the array, or -1 if it is not in the set
+	 */
+	private int positionOf(int id) {
+		if (this.slots == null) {
+			for (int i = 0; i < this.size; i++) {
+				if (this.ids[i] == id) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		return this.slots[slotOf(id)];
+	}
+
+	private static int hash(int id) {
+		int h = id * 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return the slot holding id, or the empty slot where it would go
+	 */
+	private int slotOf(int id) {
+		int mask = this.slots.length - 1;
+		int slot = hash(id) & mask;
+		int position;
+		while ((position = this.slots[slot]) != -1 && this.ids[position] != id) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	boolean contains(int id) {
+		return positionOf(id) != -1;
+	}
+
+	/**
+	 * Adds an id if it is not already present.
+	 *
+	 * @param id
+	 * @return true if the id was added
+	 */
+	boolean add(int id) {
+		int slot = -1;
+		if (this.slots == null) {
+			if (positionOf(id) != -1) {
+				return false;
+			}
+		} else {
+			slot = slotOf(id);
+			if (this.slots[slot] != -1) {
+				return false;
+			}
+		}
+		if (this.size == this.ids.length) {
+			this.ids = Arrays.copyOf(this.ids, Math.max(4, 2 * this.size));
+		}
+		this.ids[this.size] = id;
+		if (this.slots != null) {
+			this.slots[slot] = this.size;
+		}
+		this.size++;
+		if (this.slots == null ? this.size > HASH_THRESHOLD : 2 * this.size > this.slots.length) {
+			rebuildIndex(Integer.highestOneBit(4 * this.size - 1));
+		}
+		return true;
+	}
+
+	/**
+	 * Makes room for extra more ids, so that adding them does not grow the
+	 * array or the index again.
+	 *
+	 * @param extra
+	 */
+	void reserve(int extra) {
+		int capacity = this.size + extra;
+		if (capacity > this.ids.length) {
+			this.ids = Arrays.copyOf(this.ids, capacity);
+		}
+		if (capacity > HASH_THRESHOLD && (this.slots == null || 2 * capacity > this.slots.length)) {
+			rebuildIndex(Integer.highestOneBit(4 * capacity - 1));
+		}
+	}
+
+	/**
+	 * Removes an id, moving the last id into its position.
+	 *
+	 * @param id
+	 * @return true if the id was removed, false if it was not in the set
+	 */
+	boolean remove(int id) {
+		int slot = -1;
+		int position;
+		if (this.slots == null) {
+			position = positionOf(id);
+		} else {
+			slot = slotOf(id);
+			position = this.slots[slot];
+		}
+		if (position == -1) {
+			return false;
+		}
+		int last = --this.size;
+		if (this.slots == null) {
+			this.ids[position] = this.ids[last];
+		} else {
+			if (position != last) {
+				int moved = slotOf(this.ids[last]);
+				this.ids[position] = this.ids[last];
+				this.slots[moved] = position;
+			}
+			deleteSlot(slot);
+		}
+		if (this.slots != null && this.size < HASH_THRESHOLD / 4) {
+			this.slots = null;
+		}
+		return true;
+	}
+
+	/**
+	 * Empties a slot, shifting back later entries of its probe run that would
+	 * otherwise no longer be found from their home slot.
+	 */
+	private void deleteSlot(int slot) {
+		int mask = this.slots.length - 1;
+		int next = slot;
+		while (true) {
+			next = (next + 1) & mask;
+			int position = this.slots[next];
+			if (position == -1) {
+				break;
+			}
+			int home = hash(this.ids[position]) & mask;
+			// move it back unless its home lies cyclically in (slot, next]
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				this.slots[slot] = position;
+				slot = next;
+			}
+		}
+		this.slots[slot] = -1;
+	}
+
+	private void rebuildIndex(int capacity) {
+		this.slots = new int[capacity];
+		Arrays.fill(this.slots, -1);
+		int mask = capacity - 1;
+		for (int i = 0; i < this.size; i++) {
+			int slot = hash(this.ids[i]) & mask;
+			while (this.slots[slot] != -1) {
+				slot = (slot + 1) & mask;
+			}
+			this.slots[slot] = i;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for AdjacencySet.
+ */
+public class AdjacencySetTest {
+
+	private void assertSameIds(Set<Integer> expected, AdjacencySet set) {
+		assertEquals(expected.size(), set.size());
+		Set<Integer> actual = new HashSet<Integer>();
+		for (int i = 0; i < set.size(); i++) {
+			actual.add(set.get(i));
+		}
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testSmallSet() {
+		AdjacencySet set = new AdjacencySet();
+		assertTrue("Expected: true", set.add(3));
+		assertTrue("Expected: true", set.add(1));
+		assertTrue("Expected: true", set.add(2));
+		assertFalse("Expected: false", set.add(1));
+		assertTrue("Expected: true", set.remove(3));
+		assertFalse("Expected: false", set.remove(3));
+		assertFalse("Expected: false", set.contains(3));
+		// the last id fills the hole
+		assertEquals(2, set.get(0));
+		assertEquals(1, set.get(1));
+		assertEquals(2, set.size());
+	}
+
+	@Test
+	public void testMatchesHashSetAcrossThreshold() {
+		Random random = new Random(11);
+		AdjacencySet set = new AdjacencySet();
+		Set<Integer> expected = new HashSet<Integer>();
+		// grow well past the threshold, shrink back below it, and grow again,
+		// over a range small enough that removes usually hit
+		for (int phase = 0; phase < 3; phase++) {
+			int range = phase == 1 ? 40 : 4000;
+			for (int i = 0; i < 20000; i++) {
+				int id = random.nextInt(range);
+				boolean add = phase != 1 && random.nextInt(4) != 0;
+				if (add) {
+					assertEquals(expected.add(id), set.add(id));
+				} else {
+					assertEquals(expected.remove(id), set.remove(id));
+				}
+				if (i % 1000 == 0) {
+					assertSameIds(expected, set);
+				}
+			}
+			if (phase == 1) {
+				for (int id = 0; id < 4000; id++) {
+					assertEquals(expected.remove(id), set.remove(id));
+				}
+			}
+			assertSameIds(expected, set);
+			for (int id = 0; id < 4000; id++) {
+				assertEquals(expected.contains(id), set.contains(id));
+			}
+		}
+	}
+}
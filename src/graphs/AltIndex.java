@@ -0,0 +1,374 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Goal-directed shortest path search with landmarks (Goldberg and Harrelson,
+ * "Computing the Shortest Path: A* Search Meets Graph Theory", the ALT
+ * algorithm). For each of k landmarks L the index keeps d(L, v) and d(v, L) for
+ * every vertex v, k * n ints each way. By the triangle inequality
+ *
+ * d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L),
+ *
+ * and the largest of these over all landmarks is a consistent A* heuristic.
+ * If t reaches L but v does not, v cannot reach t at all and is skipped. A
+ * search settles vertices in order of distance from the source plus bound to
+ * the target, so it heads for the target instead of spreading evenly as BFS
+ * does.
+ *
+ * The first landmark is the vertex of highest degree. Each later one is the
+ * vertex farthest, to and from, from the landmarks picked so far, among the
+ * vertices they all reach and are reached by; if there is none, the next
+ * vertex by degree. Landmarks on the edge of the graph give tighter bounds
+ * than a cluster of central hubs.
+ *
+ * Searches run in per-thread buffers shared by all indexes, like BfsEngine,
+ * with a new cursor per query, and count the vertices they settle. The index
+ * describes the graph as it was when built.
+ *
+ * @param <T>
+ */
+public class AltIndex<T> {
+	private final Graph<T> graph;
+	private final int n;
+	private final int[] landmarks;
+	/** fromLandmark[i][v] = d(landmarks[i], v), -1 if there is no path. */
+	private final int[][] fromLandmark;
+	/** toLandmark[i][v] = d(v, landmarks[i]), -1 if there is no path. */
+	private final int[][] toLandmark;
+
+	AltIndex(Graph<T> graph, int k) {
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be at least 1");
+		}
+		this.graph = graph;
+		this.n = graph.size();
+		int count = Math.min(k, this.n);
+		this.landmarks = new int[count];
+		this.fromLandmark = new int[count][];
+		this.toLandmark = new int[count][];
+		pickLandmarks();
+	}
+
+	private void pickLandmarks() {
+		int[] byDegree = Graph.idsByDegree(this.graph);
+		boolean[] picked = new boolean[this.n];
+		DirectionOptimizingBfs bfs = new DirectionOptimizingBfs(this.graph);
+		// the sum of distances to and from the landmarks so far, -1 once some
+		// landmark cannot reach or be reached from the vertex
+		int[] spread = new int[this.n];
+		int next = 0;
+		for (int i = 0; i < this.landmarks.length; i++) {
+			int landmark = -1;
+			for (int v = 0; v < this.n; v++) {
+				if (!picked[v] && spread[v] > 0 && (landmark == -1 || spread[v] > spread[landmark])) {
+					landmark = v;
+				}
+			}
+			if (landmark == -1) {
+				while (picked[byDegree[next]]) {
+					next++;
+				}
+				landmark = byDegree[next];
+			}
+			picked[landmark] = true;
+			this.landmarks[i] = landmark;
+			this.fromLandmark[i] = distances(bfs, landmark, true);
+			this.toLandmark[i] = distances(bfs, landmark, false);
+			for (int v = 0; v < this.n; v++) {
+				int from = this.fromLandmark[i][v];
+				int to = this.toLandmark[i][v];
+				if (i == 0) {
+					spread[v] = from >= 0 && to >= 0 ? from + to : -1;
+				} else if (spread[v] >= 0) {
+					spread[v] = from >= 0 && to >= 0 ? Math.min(spread[v], from + to) : -1;
+				}
+			}
+		}
+	}
+
+	private int[] distances(DirectionOptimizingBfs bfs, int source, boolean forward) {
+		int[] distance = new int[this.n];
+		bfs.search(source, forward, distance, null);
+		return distance;
+	}
+
+	/**
+	 * @return the ids of the landmarks, in the order they were picked
+	 */
+	public int[] getLandmarkIds() {
+		return this.landmarks.clone();
+	}
+
+	/**
+	 * @param v
+	 * @param t
+	 * @return a lower bound on d(v, t), or -1 if v cannot reach t
+	 */
+	int lowerBound(int v, int t) {
+		int bound = 0;
+		for (int i = 0; i < this.landmarks.length; i++) {
+			int[] from = this.fromLandmark[i];
+			int[] to = this.toLandmark[i];
+			if (from[t] >= 0 && from[v] >= 0) {
+				bound = Math.max(bound, from[t] - from[v]);
+			}
+			if (to[t] >= 0) {
+				if (to[v] < 0) {
+					return -1;
+				}
+				bound = Math.max(bound, to[v] - to[t]);
+			}
+		}
+		return bound;
+	}
+
+	/**
+	 * Finds a shortest path with A* search guided by the landmark bounds.
+	 *
+	 * @param start
+	 * @param end
+	 * @return the keys along a shortest path from start to end, or null if there
+	 *         is none
+	 * @throws NoSuchElementException if either key is not in the graph
+	 */
+	public List<T> shortestPath(T start, T end) throws NoSuchElementException {
+		int[] ids = shortestPathById(this.graph.requireId(start), this.graph.requireId(end));
+		if (ids == null) {
+			return null;
+		}
+		List<T> path = new ArrayList<T>(ids.length);
+		for (int id : ids) {
+			path.add(this.graph.keyOf(id));
+		}
+		return path;
+	}
+
+	/**
+	 * As shortestPath, on vertex ids.
+	 *
+	 * @param start
+	 * @param end
+	 * @return the ids along the path, or null if there is none
+	 * @throws NoSuchElementException if either id is not in the graph
+	 */
+	public int[] shortestPathById(int start, int end) throws NoSuchElementException {
+		int s = this.graph.checkId(start);
+		int t = this.graph.checkId(end);
+		Search search = Search.forCurrentThread(this.n);
+		try {
+			return aStar(search, this.graph.successorCursor(), s, t);
+		} finally {
+			search.finish();
+		}
+	}
+
+	/**
+	 * Runs a plain BFS from start that stops once it settles end, as a baseline
+	 * for the number of vertices an A* search settles.
+	 *
+	 * @param start
+	 * @param end
+	 * @return the distance from start to end, or -1 if there is no path
+	 * @throws NoSuchElementException if either id is not in the graph
+	 */
+	public int bfsDistanceById(int start, int end) throws NoSuchElementException {
+		int s = this.graph.checkId(start);
+		int t = this.graph.checkId(end);
+		Search search = Search.forCurrentThread(this.n);
+		try {
+			return bfs(search, this.graph.successorCursor(), s, t);
+		} finally {
+			search.finish();
+		}
+	}
+
+	/**
+	 * @return the number of vertices settled by the calling thread's last
+	 *         search, A* or BFS, on any AltIndex
+	 */
+	public int getLastSettled() {
+		return Search.forCurrentThread(0).settled;
+	}
+
+	/**
+	 * @return the total number of vertices settled by all of the calling
+	 *         thread's searches, on any AltIndex
+	 */
+	public long getTotalSettled() {
+		return Search.forCurrentThread(0).totalSettled;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d landmarks, %d distances", this.landmarks.length, 2L * this.landmarks.length * this.n);
+	}
+
+	private int[] aStar(Search s, IdCursor cursor, int start, int end) {
+		int h = lowerBound(start, end);
+		if (h < 0) {
+			return null;
+		}
+		s.mark(start, 0, -1);
+		s.push(((long) h << 32) | start);
+		while (s.heapSize > 0) {
+			int u = (int) s.pop();
+			if (s.settledFlag[u]) {
+				continue;
+			}
+			s.settledFlag[u] = true;
+			s.settled++;
+			if (u == end) {
+				return s.path(end);
+			}
+			int d = s.distance[u] + 1;
+			for (cursor.reset(u); cursor.hasNext();) {
+				int w = cursor.next();
+				if (s.seen(w) && (s.settledFlag[w] || s.distance[w] <= d)) {
+					continue;
+				}
+				int bound = lowerBound(w, end);
+				if (bound < 0) {
+					continue;
+				}
+				s.mark(w, d, u);
+				s.push(((long) (d + bound) << 32) | w);
+			}
+		}
+		return null;
+	}
+
+	private static int bfs(Search s, IdCursor cursor, int start, int end) {
+		int tail = 0;
+		s.mark(start, 0, -1);
+		s.queue[tail++] = start;
+		for (int head = 0; head < tail; head++) {
+			int u = s.queue[head];
+			s.settled++;
+			if (u == end) {
+				return s.distance[u];
+			}
+			for (cursor.reset(u); cursor.hasNext();) {
+				int w = cursor.next();
+				if (!s.seen(w)) {
+					s.mark(w, s.distance[u] + 1, u);
+					s.queue[tail++] = w;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * The buffers of one thread's searches, shared by every AltIndex and grown
+	 * to the largest graph searched. They hold nothing but ints and booleans,
+	 * so they never keep an index or its graph alive. Distances and parents are
+	 * only valid for vertices whose stamp is the current search's, so nothing
+	 * is cleared between searches.
+	 */
+	private static class Search {
+		private static final ThreadLocal<Search> SEARCHES = ThreadLocal.withInitial(Search::new);
+
+		int[] distance = new int[0];
+		int[] parent = new int[0];
+		int[] stamp = new int[0];
+		boolean[] settledFlag = new boolean[0];
+		int[] queue = new int[0];
+		/** Binary min-heap of (priority << 32 | vertex). */
+		long[] heap = new long[16];
+		int heapSize;
+		int current;
+		int settled;
+		long totalSettled;
+
+		/**
+		 * @return the calling thread's buffers, grown to at least n vertices and
+		 *         ready for a new search if n is positive
+		 */
+		static Search forCurrentThread(int n) {
+			Search search = SEARCHES.get();
+			if (n > 0) {
+				search.begin(n);
+			}
+			return search;
+		}
+
+		private void begin(int n) {
+			if (this.stamp.length < n) {
+				this.distance = new int[n];
+				this.parent = new int[n];
+				this.stamp = new int[n];
+				this.settledFlag = new boolean[n];
+				this.queue = new int[n];
+				this.current = 0;
+			}
+			if (++this.current == Integer.MAX_VALUE) {
+				Arrays.fill(this.stamp, 0);
+				this.current = 1;
+			}
+			this.heapSize = 0;
+			this.settled = 0;
+		}
+
+		void finish() {
+			this.totalSettled += this.settled;
+		}
+
+		boolean seen(int v) {
+			return this.stamp[v] == this.current;
+		}
+
+		void mark(int v, int d, int from) {
+			this.stamp[v] = this.current;
+			this.distance[v] = d;
+			this.parent[v] = from;
+			this.settledFlag[v] = false;
+		}
+
+		int[] path(int end) {
+			int[] path = new int[this.distance[end] + 1];
+			for (int v = end, i = path.length - 1; v != -1; v = this.parent[v], i--) {
+				path[i] = v;
+			}
+			return path;
+		}
+
+		void push(long entry) {
+			if (this.heapSize == this.heap.length) {
+				this.heap = Arrays.copyOf(this.heap, 2 * this.heapSize);
+			}
+			int i = this.heapSize++;
+			this.heap[i] = entry;
+			while (i > 0 && this.heap[(i - 1) >>> 1] > entry) {
+				this.heap[i] = this.heap[(i - 1) >>> 1];
+				i = (i - 1) >>> 1;
+			}
+			this.heap[i] = entry;
+		}
+
+		long pop() {
+			long top = this.heap[0];
+			long last = this.heap[--this.heapSize];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= this.heapSize) {
+					break;
+				}
+				if (child + 1 < this.heapSize && this.heap[child + 1] < this.heap[child]) {
+					child++;
+				}
+				if (this.heap[child] >= last) {
+					break;
+				}
+				this.heap[i] = this.heap[child];
+				i = child;
+			}
+			this.heap[i] = last;
+			return top;
+		}
+	}
+}
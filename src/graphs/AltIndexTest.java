@@ -0,0 +1,111 @@
+package graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for AltIndex.
+ */
+public class AltIndexTest {
+
+	/**
+	 * Builds an n by n grid with edges both ways between neighbours, where
+	 * landmarks in the corners guide the search well.
+	 */
+	private Graph<Integer> makeGridGraph(int n) {
+		Set<Integer> keys = new HashSet<Integer>();
+		for (int i = 0; i < n * n; i++) {
+			keys.add(i);
+		}
+		Graph<Integer> g = new AdjacencyListGraph<Integer>(keys);
+		for (int row = 0; row < n; row++) {
+			for (int column = 0; column < n; column++) {
+				int v = row * n + column;
+				if (column + 1 < n) {
+					g.addEdge(v, v + 1);
+					g.addEdge(v + 1, v);
+				}
+				if (row + 1 < n) {
+					g.addEdge(v, v + n);
+					g.addEdge(v + n, v);
+				}
+			}
+		}
+		return g;
+	}
+
+	@Test
+	public void testPathsMatchBfs() {
+		Graph<Integer> g = GraphAlgorithmsTest.makeRandomGraph(2000, 5000, 73);
+		AltIndex<Integer> index = g.altIndex(8);
+		assertEquals(8, index.getLandmarkIds().length);
+		Random random = new Random(79);
+		for (int i = 0; i < 300; i++) {
+			Integer start = random.nextInt(g.size());
+			Integer end = random.nextInt(g.size());
+			List<Integer> expected = g.shortestPath(start, end);
+			List<Integer> path = index.shortestPath(start, end);
+			int distance = index.bfsDistanceById(start, end);
+			if (expected == null) {
+				assertNull(path);
+				assertEquals(-1, distance);
+				continue;
+			}
+			assertEquals(expected.size(), path.size());
+			assertEquals(expected.size() - 1, distance);
+			assertEquals(start, path.get(0));
+			assertEquals(end, path.get(path.size() - 1));
+			for (int j = 1; j < path.size(); j++) {
+				assertTrue("Expected: true", g.hasEdge(path.get(j - 1), path.get(j)));
+			}
+		}
+		assertEquals(Arrays.asList(7), index.shortestPath(7, 7));
+		assertEquals(1, index.getLastSettled());
+	}
+
+	@Test
+	public void testSettlesFewerThanBfs() {
+		Graph<Integer> g = makeGridGraph(60);
+		AltIndex<Integer> index = g.altIndex(4);
+		Random random = new Random(83);
+		long aStar = 0, bfs = 0;
+		long before = index.getTotalSettled();
+		for (int i = 0; i < 100; i++) {
+			int start = random.nextInt(g.size());
+			int end = random.nextInt(g.size());
+			int[] path = index.shortestPathById(start, end);
+			aStar += index.getLastSettled();
+			assertEquals(index.bfsDistanceById(start, end), path.length - 1);
+			bfs += index.getLastSettled();
+		}
+		assertEquals(aStar + bfs, index.getTotalSettled() - before);
+		assertTrue("Expected: true", 2 * aStar < bfs);
+	}
+
+	@Test
+	public void testSearchDoesNotRetainIndex() {
+		Graph<Integer> g = makeGridGraph(10);
+		AltIndex<Integer> index = g.altIndex(2);
+		assertEquals(19, index.shortestPath(0, 99).size());
+		WeakReference<Graph<Integer>> graphReference = new WeakReference<Graph<Integer>>(g);
+		WeakReference<AltIndex<Integer>> indexReference = new WeakReference<AltIndex<Integer>>(index);
+		g = null;
+		index = null;
+		for (int i = 0; i < 50 && (graphReference.get() != null || indexReference.get() != null); i++) {
+			System.gc();
+		}
+		assertNull(graphReference.get());
+		assertNull(indexReference.get());
+		assertEquals(Arrays.asList(0, 1, 2), makeGridGraph(3).altIndex(1).shortestPath(0, 2));
+	}
+}
@@ -0,0 +1,105 @@
+package graphs;
+
+/**
+ * Counts the work done by the breadth-first searches of one thread, split by
+ * strategy: top-down levels expand the frontier through its out-edges, and
+ * bottom-up levels scan the unvisited vertices for an edge into the frontier
+ * (see DirectionOptimizingBfs). An edge is counted each time a search looks at
+ * it. Read a thread's counters with forCurrentThread; they keep growing until
+ * reset.
+ */
+public class BfsCounters {
+	private long topDownLevels;
+	private long topDownEdges;
+	private long bottomUpLevels;
+	private long bottomUpEdges;
+
+	BfsCounters() {
+	}
+
+	BfsCounters(BfsCounters counters) {
+		this.topDownLevels = counters.topDownLevels;
+		this.topDownEdges = counters.topDownEdges;
+		this.bottomUpLevels = counters.bottomUpLevels;
+		this.bottomUpEdges = counters.bottomUpEdges;
+	}
+
+	/**
+	 * @return the counters of the searches run by the calling thread
+	 */
+	public static BfsCounters forCurrentThread() {
+		return BfsEngine.forCurrentThread().counters();
+	}
+
+	/**
+	 * Records one level of a search.
+	 *
+	 * @param bottomUp whether the level was expanded bottom-up
+	 * @param edges    the number of edges looked at
+	 */
+	void recordLevel(boolean bottomUp, long edges) {
+		if (bottomUp) {
+			this.bottomUpLevels++;
+			this.bottomUpEdges += edges;
+		} else {
+			this.topDownLevels++;
+			this.topDownEdges += edges;
+		}
+	}
+
+	/**
+	 * @return a copy of the counters less the given earlier copy
+	 */
+	BfsCounters since(BfsCounters earlier) {
+		BfsCounters difference = new BfsCounters(this);
+		difference.topDownLevels -= earlier.topDownLevels;
+		difference.topDownEdges -= earlier.topDownEdges;
+		difference.bottomUpLevels -= earlier.bottomUpLevels;
+		difference.bottomUpEdges -= earlier.bottomUpEdges;
+		return difference;
+	}
+
+	/**
+	 * Sets every counter back to zero.
+	 */
+	public void reset() {
+		this.topDownLevels = 0;
+		this.topDownEdges = 0;
+		this.bottomUpLevels = 0;
+		this.bottomUpEdges = 0;
+	}
+
+	/**
+	 * @return the number of levels expanded top-down
+	 */
+	public long getTopDownLevels() {
+		return this.topDownLevels;
+	}
+
+	/**
+	 * @return the number of edges looked at by top-down levels
+	 */
+	public long getTopDownEdges() {
+		return this.topDownEdges;
+	}
+
+	/**
+	 * @return the number of levels expanded bottom-up
+	 */
+	public long getBottomUpLevels() {
+		return this.bottomUpLevels;
+	}
+
+	/**
+	 * @return the number of edges looked at by bottom-up levels
+	 */
+	public long getBottomUpEdges() {
+		return this.bottomUpEdges;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("top-down: %d levels, %d edges; bottom-up: %d levels, %d edges", this.topDownLevels,
+				this.topDownEdges, this.bottomUpLevels, this.bottomUpEdges);
+	}
+}
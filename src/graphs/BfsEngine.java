@@ -0,0 +1,357 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Breadth-first search over dense vertex ids, with all scratch space kept
+ * between queries. Visited marks are epoch stamps: a vertex counts as visited
+ * when its stamp equals the current epoch, so starting a new search is one
+ * increment instead of clearing an array. Parents and queues are plain int
+ * arrays sized to the graph; each vertex is enqueued at most once per search,
+ * so a queue never needs more than size() slots and never wraps.
+ *
+ * Either search may expand a level bottom-up instead of top-down, as in
+ * DirectionOptimizingBfs: when the frontier's edges dominate the edges that
+ * side has not explored yet, each vertex that side has not reached looks for a
+ * neighbour in the frontier, kept as a bitset, rather than the frontier
+ * looking at all of its neighbours. The work done is added to the engine's
+ * BfsCounters.
+ *
+ * One engine is kept per thread (see forCurrentThread), and a search allocates
+ * nothing except the list it returns. The cursors are borrowed from the graph
+ * for the length of a search (see Graph.takeCursors) and nothing refers to the
+ * graph between searches, so a thread's engine never keeps a discarded graph
+ * alive. An engine is not reentrant.
+ */
+final class BfsEngine {
+	private static final ThreadLocal<BfsEngine> ENGINES = new ThreadLocal<BfsEngine>() {
+		@Override
+		protected BfsEngine initialValue() {
+			return new BfsEngine();
+		}
+	};
+
+	private int epoch;
+	private int[] forwardStamp = new int[0];
+	private int[] backwardStamp = new int[0];
+	private int[] forwardParent = new int[0];
+	private int[] backwardParent = new int[0];
+	private int[] forwardQueue = new int[0];
+	private int[] backwardQueue = new int[0];
+	private long[] frontier = new long[0];
+	// tail of the queue and out-edges of the new level after the last expand
+	private int tail;
+	private long frontierEdges;
+	private final BfsCounters counters = new BfsCounters();
+	// the switching thresholds of DirectionOptimizingBfs; tests change them
+	int alpha = DirectionOptimizingBfs.ALPHA;
+	int beta = DirectionOptimizingBfs.BETA;
+
+	// the graph being searched and its borrowed cursors, set only during a
+	// search
+	private Graph<?> graph;
+	private IdCursor[] cursors;
+	private IdCursor successors;
+	private IdCursor predecessors;
+
+	private BfsEngine() {
+	}
+
+	/**
+	 * @return the engine owned by the calling thread
+	 */
+	static BfsEngine forCurrentThread() {
+		return ENGINES.get();
+	}
+
+	/**
+	 * @return the counters of the searches this engine has run
+	 */
+	BfsCounters counters() {
+		return this.counters;
+	}
+
+	/**
+	 * Readies the buffers and cursors for a search of the given graph and opens a
+	 * new epoch. Must be paired with release.
+	 */
+	private void prepare(Graph<?> graph) {
+		this.graph = graph;
+		this.cursors = graph.takeCursors();
+		this.successors = this.cursors[0];
+		this.predecessors = this.cursors[1];
+		int n = graph.size();
+		if (this.forwardStamp.length < n) {
+			int capacity = Math.max(n, this.forwardStamp.length + (this.forwardStamp.length >> 1));
+			this.forwardStamp = new int[capacity];
+			this.backwardStamp = new int[capacity];
+			this.forwardParent = new int[capacity];
+			this.backwardParent = new int[capacity];
+			this.forwardQueue = new int[capacity];
+			this.backwardQueue = new int[capacity];
+			this.frontier = new long[(capacity + 63) >>> 6];
+			this.epoch = 0;
+		}
+		if (this.epoch == Integer.MAX_VALUE) {
+			Arrays.fill(this.forwardStamp, 0);
+			Arrays.fill(this.backwardStamp, 0);
+			this.epoch = 0;
+		}
+		this.epoch++;
+	}
+
+	/**
+	 * Bidirectional BFS between two vertex ids; see Graph.shortestPath.
+	 *
+	 * @return the keys along a shortest path from start to end, or null if end
+	 *         is unreachable
+	 */
+	<T> List<T> shortestPath(Graph<T> graph, int start, int end) {
+		int meeting = search(graph, start, end);
+		if (meeting == -1) {
+			return null;
+		}
+		List<T> path = new ArrayList<T>(pathLength(meeting));
+		for (int v = meeting; v != -1; v = this.forwardParent[v]) {
+			path.add(graph.keyOf(v));
+		}
+		Collections.reverse(path);
+		for (int v = this.backwardParent[meeting]; v != -1; v = this.backwardParent[v]) {
+			path.add(graph.keyOf(v));
+		}
+		return path;
+	}
+
+	/**
+	 * As shortestPath, but returning the path as vertex ids.
+	 *
+	 * @return the ids along a shortest path from start to end, or null if end
+	 *         is unreachable
+	 */
+	int[] shortestPathIds(Graph<?> graph, int start, int end) {
+		int meeting = search(graph, start, end);
+		if (meeting == -1) {
+			return null;
+		}
+		int forwardLength = 0;
+		for (int v = meeting; v != -1; v = this.forwardParent[v]) {
+			forwardLength++;
+		}
+		int[] path = new int[pathLength(meeting)];
+		int i = forwardLength;
+		for (int v = meeting; v != -1; v = this.forwardParent[v]) {
+			path[--i] = v;
+		}
+		i = forwardLength;
+		for (int v = this.backwardParent[meeting]; v != -1; v = this.backwardParent[v]) {
+			path[i++] = v;
+		}
+		return path;
+	}
+
+	/**
+	 * Runs the two searches until they meet.
+	 *
+	 * @return the vertex where they met, or -1 if end is unreachable
+	 */
+	private int search(Graph<?> graph, int start, int end) {
+		prepare(graph);
+		try {
+			return meet(graph, start, end);
+		} finally {
+			release();
+		}
+	}
+
+	/**
+	 * Hands the cursors back to the graph searched and drops every reference to
+	 * it, keeping the buffers.
+	 */
+	private void release() {
+		this.graph.returnCursors(this.cursors);
+		this.graph = null;
+		this.cursors = null;
+		this.successors = null;
+		this.predecessors = null;
+	}
+
+	/**
+	 * The body of search, run between prepare and release.
+	 */
+	private int meet(Graph<?> graph, int start, int end) {
+		int epoch = this.epoch;
+		int[] forwardStamp = this.forwardStamp;
+		int[] backwardStamp = this.backwardStamp;
+		forwardStamp[start] = epoch;
+		backwardStamp[end] = epoch;
+		this.forwardParent[start] = -1;
+		this.backwardParent[end] = -1;
+		this.forwardQueue[0] = start;
+		this.backwardQueue[0] = end;
+
+		// each queue holds the current level in [head, tail); each side tracks
+		// the edges out of its level and the edges it has not yet explored
+		int forwardHead = 0, forwardTail = 1;
+		int backwardHead = 0, backwardTail = 1;
+		long edges = graph.numEdges();
+		long forwardEdges = graph.outDegreeById(start);
+		long backwardEdges = graph.inDegreeById(end);
+		long forwardUnexplored = edges - forwardEdges;
+		long backwardUnexplored = edges - backwardEdges;
+		boolean forwardBottomUp = false, backwardBottomUp = false;
+		int meeting = start == end ? start : -1;
+		while (meeting == -1 && forwardHead < forwardTail && backwardHead < backwardTail) {
+			if (forwardTail - forwardHead <= backwardTail - backwardHead) {
+				int levelEnd = forwardTail;
+				forwardBottomUp = goBottomUp(forwardBottomUp, forwardEdges, forwardUnexplored, levelEnd - forwardHead);
+				meeting = forwardBottomUp
+						? expandLevelBottomUp(this.predecessors, true, this.forwardQueue, forwardHead, levelEnd,
+								forwardStamp, this.forwardParent, backwardStamp)
+						: expandLevel(this.successors, true, this.forwardQueue, forwardHead, levelEnd, forwardStamp,
+								this.forwardParent, backwardStamp);
+				forwardHead = levelEnd;
+				forwardTail = this.tail;
+				forwardEdges = this.frontierEdges;
+				forwardUnexplored -= forwardEdges;
+			} else {
+				int levelEnd = backwardTail;
+				backwardBottomUp = goBottomUp(backwardBottomUp, backwardEdges, backwardUnexplored,
+						levelEnd - backwardHead);
+				meeting = backwardBottomUp
+						? expandLevelBottomUp(this.successors, false, this.backwardQueue, backwardHead, levelEnd,
+								backwardStamp, this.backwardParent, forwardStamp)
+						: expandLevel(this.predecessors, false, this.backwardQueue, backwardHead, levelEnd,
+								backwardStamp, this.backwardParent, forwardStamp);
+				backwardHead = levelEnd;
+				backwardTail = this.tail;
+				backwardEdges = this.frontierEdges;
+				backwardUnexplored -= backwardEdges;
+			}
+		}
+		return meeting;
+	}
+
+	/**
+	 * Decides how to expand the next level of one side, with the rule of
+	 * DirectionOptimizingBfs.
+	 *
+	 * @param bottomUp       how the side expanded its last level
+	 * @param frontierEdges  edges out of the level about to be expanded
+	 * @param unexplored     edges the side has not explored
+	 * @param frontierSize   vertices in the level
+	 * @return true to expand the level bottom-up
+	 */
+	private boolean goBottomUp(boolean bottomUp, long frontierEdges, long unexplored, int frontierSize) {
+		if (bottomUp) {
+			return (long) frontierSize * this.beta >= this.graph.size();
+		}
+		return frontierEdges * this.alpha > unexplored;
+	}
+
+	private int degree(int v, boolean forward) {
+		return forward ? this.graph.outDegreeById(v) : this.graph.inDegreeById(v);
+	}
+
+	/**
+	 * @return the number of vertices on the path through the meeting vertex
+	 */
+	private int pathLength(int meeting) {
+		int length = 0;
+		for (int v = meeting; v != -1; v = this.forwardParent[v]) {
+			length++;
+		}
+		for (int v = this.backwardParent[meeting]; v != -1; v = this.backwardParent[v]) {
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * Visits the neighbours of queue[head, levelEnd), appending newly reached
+	 * vertices after levelEnd. Stops as soon as a vertex already stamped by the
+	 * opposite search is reached.
+	 *
+	 * @return the meeting vertex, or -1 if the searches did not meet
+	 */
+	private int expandLevel(IdCursor cursor, boolean forward, int[] queue, int head, int levelEnd, int[] stamp,
+			int[] parent, int[] otherStamp) {
+		int epoch = this.epoch;
+		int tail = levelEnd;
+		long edges = 0;
+		long frontierEdges = 0;
+		int meeting = -1;
+		search: for (int i = head; i < levelEnd; i++) {
+			int u = queue[i];
+			cursor.reset(u);
+			while (cursor.hasNext()) {
+				int w = cursor.next();
+				edges++;
+				if (stamp[w] != epoch) {
+					stamp[w] = epoch;
+					parent[w] = u;
+					if (otherStamp[w] == epoch) {
+						meeting = w;
+						break search;
+					}
+					queue[tail++] = w;
+					frontierEdges += degree(w, forward);
+				}
+			}
+		}
+		this.counters.recordLevel(false, edges);
+		this.tail = tail;
+		this.frontierEdges = frontierEdges;
+		return meeting;
+	}
+
+	/**
+	 * As expandLevel, but bottom-up: every vertex not yet stamped looks through
+	 * its neighbours in the opposite direction, with the given cursor, for one
+	 * in queue[head, levelEnd), and takes the first it finds as its parent.
+	 *
+	 * @return the meeting vertex, or -1 if the searches did not meet
+	 */
+	private int expandLevelBottomUp(IdCursor cursor, boolean forward, int[] queue, int head, int levelEnd,
+			int[] stamp, int[] parent, int[] otherStamp) {
+		int epoch = this.epoch;
+		long[] frontier = this.frontier;
+		for (int i = head; i < levelEnd; i++) {
+			frontier[queue[i] >>> 6] |= 1L << queue[i];
+		}
+		int n = this.graph.size();
+		int tail = levelEnd;
+		long edges = 0;
+		long frontierEdges = 0;
+		int meeting = -1;
+		search: for (int v = 0; v < n; v++) {
+			if (stamp[v] == epoch) {
+				continue;
+			}
+			for (cursor.reset(v); cursor.hasNext();) {
+				int u = cursor.next();
+				edges++;
+				if ((frontier[u >>> 6] & (1L << u)) != 0) {
+					stamp[v] = epoch;
+					parent[v] = u;
+					if (otherStamp[v] == epoch) {
+						meeting = v;
+						break search;
+					}
+					queue[tail++] = v;
+					frontierEdges += degree(v, forward);
+					break;
+				}
+			}
+		}
+		for (int i = head; i < levelEnd; i++) {
+			frontier[queue[i] >>> 6] = 0;
+		}
+		this.counters.recordLevel(true, edges);
+		this.tail = tail;
+		this.frontierEdges = frontierEdges;
+		return meeting;
+	}
+}
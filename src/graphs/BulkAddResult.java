@@ -0,0 +1,35 @@
+package graphs;
+
+/**
+ * What a bulk edge insertion did: how many edges were added to the graph, and
+ * how many were skipped because they repeated an edge earlier in the batch or
+ * one the graph already had.
+ */
+public class BulkAddResult {
+	private final int added;
+	private final int duplicates;
+
+	BulkAddResult(int added, int duplicates) {
+		this.added = added;
+		this.duplicates = duplicates;
+	}
+
+	/**
+	 * @return the number of edges added to the graph
+	 */
+	public int getAdded() {
+		return this.added;
+	}
+
+	/**
+	 * @return the number of edges in the batch that were not added
+	 */
+	public int getDuplicates() {
+		return this.duplicates;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d edges added, %d duplicates skipped", this.added, this.duplicates);
+	}
+}
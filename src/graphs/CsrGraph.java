@@ -0,0 +1,402 @@
+package graphs;
+
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable graph stored in compressed sparse row (CSR) form. Every vertex is
+ * given a dense id in [0, size()), and the successors of vertex v are
+ * outTargets[outOffsets[v]] .. outTargets[outOffsets[v + 1] - 1], sorted by id.
+ * Predecessors are kept the same way in inOffsets/inTargets. Compared to
+ * AdjacencyListGraph this needs no per-vertex objects, so the whole edge set
+ * lives in four int arrays.
+ *
+ * Edges cannot be added or removed once the graph is built.
+ *
+ * @param <T>
+ */
+public class CsrGraph<T> extends Graph<T> {
+	VertexDictionary<T> dictionary;
+	int[] outOffsets;
+	int[] outTargets;
+	int[] inOffsets;
+	int[] inTargets;
+	private DegreeDistribution outDistribution, inDistribution;
+
+	/**
+	 * Builds a CSR copy of the given graph.
+	 *
+	 * @param graph
+	 */
+	CsrGraph(Graph<T> graph) {
+		this(graph.keySet());
+		int n = this.dictionary.size();
+		int[] toId = new int[n];
+		for (int id = 0; id < n; id++) {
+			toId[id] = this.dictionary.idOf(graph.keyOf(id));
+		}
+		int[] from = new int[graph.numEdges()];
+		int[] to = new int[from.length];
+		int m = 0;
+		IdCursor cursor = graph.successorCursor();
+		for (int id = 0; id < n; id++) {
+			for (cursor.reset(id); cursor.hasNext();) {
+				if (m == from.length) {
+					from = Arrays.copyOf(from, 2 * m + 1);
+					to = Arrays.copyOf(to, 2 * m + 1);
+				}
+				from[m] = toId[id];
+				to[m] = toId[cursor.next()];
+				m++;
+			}
+		}
+		buildEdges(from, to, m);
+	}
+
+	/**
+	 * Builds a graph whose vertex ids are the positions in keys, from an edge
+	 * list given as parallel arrays of ids. Duplicate edges are dropped.
+	 *
+	 * @param keys  vertex keys, indexed by id
+	 * @param from  source id of each edge
+	 * @param to    target id of each edge
+	 * @param count number of edges to read from the arrays
+	 */
+	CsrGraph(List<T> keys, int[] from, int[] to, int count) {
+		this(keys);
+		buildEdges(from, to, count);
+	}
+
+	/**
+	 * Wraps CSR arrays that are already laid out, such as ones loaded from a
+	 * GraphSnapshot. Rows must be sorted and free of duplicates.
+	 *
+	 * @param keys vertex keys, indexed by id
+	 */
+	CsrGraph(List<T> keys, int[] outOffsets, int[] outTargets, int[] inOffsets, int[] inTargets) {
+		this(keys);
+		this.outOffsets = outOffsets;
+		this.outTargets = outTargets;
+		this.inOffsets = inOffsets;
+		this.inTargets = inTargets;
+	}
+
+	private CsrGraph(Collection<T> keys) {
+		this.dictionary = new VertexDictionary<T>(keys);
+	}
+
+	/**
+	 * Fills the CSR arrays from an edge list: the sorted, deduplicated
+	 * EdgeBatch is the successor rows, and transposing it gives the predecessor
+	 * rows.
+	 *
+	 * @throws NoSuchElementException if an id is out of range
+	 */
+	private void buildEdges(int[] from, int[] to, int count) {
+		int n = this.dictionary.size();
+		EdgeBatch batch = EdgeBatch.sort(n, from, to, count, Runtime.getRuntime().availableProcessors());
+		this.outOffsets = batch.offsets;
+		this.outTargets = batch.targets;
+		int m = batch.size();
+
+		// walking sources in increasing order leaves every predecessor row sorted
+		this.inOffsets = new int[n + 1];
+		for (int i = 0; i < m; i++) {
+			this.inOffsets[this.outTargets[i] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			this.inOffsets[v + 1] += this.inOffsets[v];
+		}
+		this.inTargets = new int[m];
+		int[] fill = Arrays.copyOf(this.inOffsets, n);
+		for (int v = 0; v < n; v++) {
+			for (int i = this.outOffsets[v]; i < this.outOffsets[v + 1]; i++) {
+				this.inTargets[fill[this.outTargets[i]]++] = v;
+			}
+		}
+	}
+
+	/**
+	 * Lays out the successor or predecessor lists of any graph as CSR arrays
+	 * indexed by vertex id. A CsrGraph hands back its own arrays.
+	 *
+	 * @param graph
+	 * @param successors true for successor rows, false for predecessor rows
+	 * @return {offsets, targets}
+	 */
+	static int[][] rows(Graph<?> graph, boolean successors) {
+		if (graph instanceof CsrGraph) {
+			CsrGraph<?> csr = (CsrGraph<?>) graph;
+			return successors ? new int[][] { csr.outOffsets, csr.outTargets }
+					: new int[][] { csr.inOffsets, csr.inTargets };
+		}
+		int n = graph.size();
+		IdCursor cursor = successors ? graph.successorCursor() : graph.predecessorCursor();
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[Math.max(16, graph.numEdges())];
+		int count = 0;
+		for (int v = 0; v < n; v++) {
+			for (cursor.reset(v); cursor.hasNext();) {
+				if (count == targets.length) {
+					targets = Arrays.copyOf(targets, 2 * count);
+				}
+				targets[count++] = cursor.next();
+			}
+			offsets[v + 1] = count;
+		}
+		return new int[][] { offsets, targets };
+	}
+
+	@Override
+	public int size() {
+		return this.dictionary.size();
+	}
+
+	@Override
+	public int numEdges() {
+		return this.outTargets.length;
+	}
+
+	/**
+	 * Scans the offsets once; the graph cannot change, so the result is kept.
+	 */
+	@Override
+	public DegreeDistribution outDegreeDistribution() {
+		if (this.outDistribution == null) {
+			this.outDistribution = DegreeCounter.scan(this, true);
+		}
+		return this.outDistribution;
+	}
+
+	@Override
+	public DegreeDistribution inDegreeDistribution() {
+		if (this.inDistribution == null) {
+			this.inDistribution = DegreeCounter.scan(this, false);
+		}
+		return this.inDistribution;
+	}
+
+	/**
+	 * CsrGraph is immutable.
+	 *
+	 * @throws NoSuchElementException        if either key is not found in the
+	 *                                       graph
+	 * @throws UnsupportedOperationException otherwise
+	 */
+	@Override
+	public boolean addEdge(T from, T to) {
+		return addEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean addEdgeById(int from, int to) {
+		checkId(from);
+		checkId(to);
+		throw new UnsupportedOperationException("CsrGraph is immutable");
+	}
+
+	@Override
+	public boolean hasVertex(T key) {
+		return this.dictionary.idOf(key) != -1;
+	}
+
+	@Override
+	public boolean hasEdge(T from, T to) throws NoSuchElementException {
+		return hasEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean hasEdgeById(int v, int w) throws NoSuchElementException {
+		checkId(v);
+		checkId(w);
+		return Arrays.binarySearch(this.outTargets, this.outOffsets[v], this.outOffsets[v + 1], w) >= 0;
+	}
+
+	/**
+	 * CsrGraph is immutable.
+	 *
+	 * @throws NoSuchElementException        if either key is not found in the
+	 *                                       graph
+	 * @throws UnsupportedOperationException otherwise
+	 */
+	@Override
+	public boolean removeEdge(T from, T to) throws NoSuchElementException {
+		return removeEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean removeEdgeById(int from, int to) throws NoSuchElementException {
+		checkId(from);
+		checkId(to);
+		throw new UnsupportedOperationException("CsrGraph is immutable");
+	}
+
+	@Override
+	public int outDegree(T key) {
+		return outDegreeById(requireId(key));
+	}
+
+	@Override
+	public int outDegreeById(int v) {
+		checkId(v);
+		return this.outOffsets[v + 1] - this.outOffsets[v];
+	}
+
+	@Override
+	public int inDegree(T key) {
+		return inDegreeById(requireId(key));
+	}
+
+	@Override
+	public int inDegreeById(int v) {
+		checkId(v);
+		return this.inOffsets[v + 1] - this.inOffsets[v];
+	}
+
+	@Override
+	public Set<T> keySet() {
+		return this.dictionary.keySet();
+	}
+
+	@Override
+	public Set<T> successorSet(T key) {
+		int v = requireId(key);
+		return rowToSet(this.outOffsets, this.outTargets, v);
+	}
+
+	@Override
+	public Set<T> predecessorSet(T key) {
+		int v = requireId(key);
+		return rowToSet(this.inOffsets, this.inTargets, v);
+	}
+
+	private Set<T> rowToSet(int[] offsets, int[] targets, int v) {
+		Set<T> set = new HashSet<T>();
+		for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+			set.add(this.dictionary.keyOf(targets[i]));
+		}
+		return set;
+	}
+
+	@Override
+	public void forEachSuccessor(T key, Consumer<? super T> action) {
+		int v = requireId(key);
+		for (int i = this.outOffsets[v]; i < this.outOffsets[v + 1]; i++) {
+			action.accept(this.dictionary.keyOf(this.outTargets[i]));
+		}
+	}
+
+	@Override
+	public void forEachPredecessor(T key, Consumer<? super T> action) {
+		int v = requireId(key);
+		for (int i = this.inOffsets[v]; i < this.inOffsets[v + 1]; i++) {
+			action.accept(this.dictionary.keyOf(this.inTargets[i]));
+		}
+	}
+
+	@Override
+	public void forEachSuccessorById(int v, IntConsumer action) {
+		checkId(v);
+		for (int i = this.outOffsets[v]; i < this.outOffsets[v + 1]; i++) {
+			action.accept(this.outTargets[i]);
+		}
+	}
+
+	@Override
+	public void forEachPredecessorById(int v, IntConsumer action) {
+		checkId(v);
+		for (int i = this.inOffsets[v]; i < this.inOffsets[v + 1]; i++) {
+			action.accept(this.inTargets[i]);
+		}
+	}
+
+	@Override
+	public Iterator<T> successorIterator(T key) {
+		int v = requireId(key);
+		return new RowIterator(this.outTargets, this.outOffsets[v], this.outOffsets[v + 1]);
+	}
+
+	@Override
+	public Iterator<T> predecessorIterator(T key) {
+		int v = requireId(key);
+		return new RowIterator(this.inTargets, this.inOffsets[v], this.inOffsets[v + 1]);
+	}
+
+	class RowIterator implements Iterator<T> {
+		int[] targets;
+		int position, end;
+
+		public RowIterator(int[] targets, int start, int end) {
+			this.targets = targets;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.position < this.end;
+		}
+
+		@Override
+		public T next() {
+			if (this.position >= this.end) {
+				throw new NoSuchElementException();
+			}
+			return dictionary.keyOf(this.targets[this.position++]);
+		}
+	}
+
+	@Override
+	public int idOf(T key) {
+		return this.dictionary.idOf(key);
+	}
+
+	@Override
+	public T keyOf(int id) {
+		return this.dictionary.keyOf(id);
+	}
+
+	@Override
+	public IdCursor successorCursor() {
+		return new RowCursor(this.outOffsets, this.outTargets);
+	}
+
+	@Override
+	public IdCursor predecessorCursor() {
+		return new RowCursor(this.inOffsets, this.inTargets);
+	}
+
+	static class RowCursor implements IdCursor {
+		int[] offsets, targets;
+		int position, end;
+
+		RowCursor(int[] offsets, int[] targets) {
+			this.offsets = offsets;
+			this.targets = targets;
+		}
+
+		@Override
+		public IdCursor reset(int id) {
+			this.position = this.offsets[id];
+			this.end = this.offsets[id + 1];
+			return this;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.position < this.end;
+		}
+
+		@Override
+		public int next() {
+			return this.targets[this.position++];
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for CsrGraph, using the example graphs from the milestone tests.
+ */
+public class CsrGraphTest {
+
+	private Set<String> getExampleVertexData() {
+		String[] toInsert = {"a","b","c","d","e","f"};
+		HashSet<String> items = new HashSet<String>();
+		for (String str : toInsert) {
+			items.add(str);
+		}
+		return items;
+	}
+
+	private Set<Integer> getExample2VertexData() {
+		Integer[] toInsert = {0,1,2,3,4,5,6};
+		HashSet<Integer> items = new HashSet<Integer>();
+		for (Integer i : toInsert) {
+			items.add(i);
+		}
+		return items;
+	}
+
+	public Graph<String> makeExampleCSRGraph() {
+		Graph<String> g = new AdjacencyListGraph<String>(getExampleVertexData());
+		g.addEdge("a", "b");
+		g.addEdge("a", "c");
+		g.addEdge("b", "d");
+		g.addEdge("c", "d");
+		g.addEdge("d", "c");
+		g.addEdge("d", "e");
+		g.addEdge("d", "f");
+		g.addEdge("f", "c");
+		return new CsrGraph<String>(g);
+	}
+
+	public Graph<Integer> makeExample2CSRGraph() {
+		Graph<Integer> g = new AdjacencyListGraph<Integer>(getExample2VertexData());
+		g.addEdge(0, 1);
+		g.addEdge(1, 0);
+		g.addEdge(0, 2);
+		g.addEdge(2, 3);
+		g.addEdge(2, 4);
+		g.addEdge(3, 4);
+		g.addEdge(4, 5);
+		g.addEdge(4, 6);
+		g.addEdge(6, 2);
+		return new CsrGraph<Integer>(g);
+	}
+
+	@Test
+	public void testCSRReadOperations() {
+		Graph<String> g = makeExampleCSRGraph();
+		Graph<Integer> g2 = makeExample2CSRGraph();
+		assertEquals(6, g.size());
+		assertEquals(8, g.numEdges());
+		assertEquals(9, g2.numEdges());
+		assertEquals(getExampleVertexData(), g.keySet());
+		assertTrue("Expected: true", g.hasEdge("a","b"));
+		assertTrue("Expected: true", g.hasEdge("f","c"));
+		assertFalse("Expected: false", g.hasEdge("b","c"));
+		assertFalse("Expected: false", g.hasEdge("b","a"));
+		assertEquals(3, g.inDegree("c"));
+		assertEquals(3, g.outDegree("d"));
+		assertEquals(0, g.outDegree("e"));
+		assertEquals(new HashSet<String>(Arrays.asList("c","e","f")), g.successorSet("d"));
+		assertEquals(new HashSet<String>(Arrays.asList("a","d","f")), g.predecessorSet("c"));
+
+		Iterator<String> it = g.predecessorIterator("c");
+		Set<String> returned = new HashSet<String>();
+		while (it.hasNext()) {
+			returned.add(it.next());
+		}
+		assertEquals(new HashSet<String>(Arrays.asList("a","d","f")), returned);
+		try {
+			g.successorIterator("z");
+			fail("Did not throw NoSuchElementException");
+		} catch (Exception e) {
+			if (!(e instanceof NoSuchElementException)) {
+				fail("Did not throw NoSuchElementException");
+			}
+		}
+	}
+
+	@Test
+	public void testCSRAlgorithms() {
+		Graph<String> g = makeExampleCSRGraph();
+		Graph<Integer> g2 = makeExample2CSRGraph();
+		assertEquals(Arrays.asList("f","c","d","e"), g.shortestPath("f","e"));
+		assertEquals(Arrays.asList(1,0,2,4,5), g2.shortestPath(1,5));
+		assertEquals(null, g2.shortestPath(2,0));
+		assertEquals(new HashSet<String>(Arrays.asList("c","d","f")), g.stronglyConnectedComponent("f"));
+		assertEquals(new HashSet<Integer>(Arrays.asList(2,3,4,6)), g2.stronglyConnectedComponent(2));
+	}
+
+	@Test
+	public void testCSRFromEdgeArraysDropsDuplicates() {
+		int[] from = {0, 2, 0, 1, 0};
+		int[] to = {1, 0, 1, 2, 2};
+		Graph<String> g = new CsrGraph<String>(Arrays.asList("x","y","z"), from, to, from.length);
+		assertEquals(4, g.numEdges());
+		assertEquals(2, g.outDegree("x"));
+		assertEquals(2, g.inDegree("z"));
+		assertTrue("Expected: true", g.hasEdge("z","x"));
+		assertEquals(Arrays.asList("y","z","x"), g.shortestPath("y","x"));
+	}
+
+	@Test
+	public void testCSRIsImmutable() {
+		Graph<String> g = makeExampleCSRGraph();
+		try {
+			g.addEdge("a", "e");
+			fail("Did not throw UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			g.removeEdge("a", "z");
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+		assertEquals(8, g.numEdges());
+	}
+
+	@Test
+	public void testSnapshotRoundTrip() throws IOException {
+		Graph<String> g = makeExampleCSRGraph();
+		CsrGraph<String> csr = new CsrGraph<String>(g);
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		GraphSnapshot.write(csr, file);
+		CsrGraph<String> loaded = GraphSnapshot.read(file);
+		assertEquals(csr.keySet(), loaded.keySet());
+		assertEquals(8, loaded.numEdges());
+		for (String from : csr.keySet()) {
+			assertEquals(csr.successorSet(from), loaded.successorSet(from));
+			assertEquals(csr.predecessorSet(from), loaded.predecessorSet(from));
+		}
+		assertEquals(Arrays.asList("f","c","d","e"), loaded.shortestPath("f","e"));
+	}
+
+	@Test
+	public void testSnapshotKeepsUnicodeNames() throws IOException {
+		List<String> keys = Arrays.asList("Zo\u00eb Kravitz", "Bj\u00f6rk", "\u738b\u83f2");
+		int[] from = {0, 1};
+		int[] to = {1, 2};
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		GraphSnapshot.write(new CsrGraph<String>(keys, from, to, 2), file);
+		Graph<String> loaded = GraphSnapshot.read(file);
+		assertEquals(new HashSet<String>(keys), loaded.keySet());
+		assertEquals(keys, loaded.shortestPath("Zo\u00eb Kravitz", "\u738b\u83f2"));
+	}
+
+	@Test
+	public void testSnapshotDetectsCorruption() throws IOException {
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		GraphSnapshot.write(new CsrGraph<String>(makeExampleCSRGraph()), file);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(raf.length() - 12);
+			raf.write(0x7f);
+		}
+		try {
+			GraphSnapshot.read(file);
+			fail("Did not throw IOException");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the degree of every vertex on one side of a mutable graph, together
+ * with how many vertices have each degree, the largest degree and the sum of
+ * all degrees. Graphs call increment and decrement as edges come and go, so
+ * every one of these is current without a pass over the graph.
+ *
+ * Moving a vertex from degree d to d + 1 moves one count between adjacent
+ * histogram buckets. The maximum only drops when its bucket empties, and then
+ * by exactly one, since the vertex that left it now has degree max - 1.
+ */
+final class DegreeCounter {
+	private final int[] degrees;
+	/** histogram[d] is the number of vertices with degree d. */
+	private int[] histogram;
+	private int maxDegree;
+	private int total;
+
+	/**
+	 * Creates a counter for size vertices, all of degree 0.
+	 *
+	 * @param size
+	 */
+	DegreeCounter(int size) {
+		this.degrees = new int[size];
+		this.histogram = new int[4];
+		this.histogram[0] = size;
+	}
+
+	/**
+	 * @param id
+	 * @return the degree of vertex id
+	 */
+	int degree(int id) {
+		return this.degrees[id];
+	}
+
+	/**
+	 * @return the sum of all degrees, which is the number of edges
+	 */
+	int total() {
+		return this.total;
+	}
+
+	void increment(int id) {
+		int degree = this.degrees[id]++;
+		if (degree + 1 == this.histogram.length) {
+			this.histogram = Arrays.copyOf(this.histogram, 2 * this.histogram.length);
+		}
+		this.histogram[degree]--;
+		this.histogram[degree + 1]++;
+		if (degree == this.maxDegree) {
+			this.maxDegree++;
+		}
+		this.total++;
+	}
+
+	void decrement(int id) {
+		int degree = this.degrees[id]--;
+		this.histogram[degree]--;
+		this.histogram[degree - 1]++;
+		if (degree == this.maxDegree && this.histogram[degree] == 0) {
+			this.maxDegree--;
+		}
+		this.total--;
+	}
+
+	/**
+	 * Copies out the current distribution, in time proportional to the largest
+	 * degree rather than to the size of the graph.
+	 *
+	 * @return
+	 */
+	DegreeDistribution distribution() {
+		return new DegreeDistribution(Arrays.copyOf(this.histogram, this.maxDegree + 1), this.degrees.length,
+				this.total);
+	}
+
+	/**
+	 * Builds a distribution with one pass over the graph, for graphs that keep
+	 * no counters.
+	 *
+	 * @param graph
+	 * @param out   true for out-degrees, false for in-degrees
+	 * @return
+	 */
+	static DegreeDistribution scan(Graph<?> graph, boolean out) {
+		int size = graph.size();
+		int[] histogram = new int[1];
+		long total = 0;
+		for (int id = 0; id < size; id++) {
+			int degree = out ? graph.outDegreeById(id) : graph.inDegreeById(id);
+			if (degree >= histogram.length) {
+				histogram = Arrays.copyOf(histogram, Math.max(degree + 1, 2 * histogram.length));
+			}
+			histogram[degree]++;
+			total += degree;
+		}
+		int maxDegree = histogram.length - 1;
+		while (maxDegree > 0 && histogram[maxDegree] == 0) {
+			maxDegree--;
+		}
+		return new DegreeDistribution(Arrays.copyOf(histogram, maxDegree + 1), size, total);
+	}
+}
@@ -0,0 +1,55 @@
+package graphs;
+
+/**
+ * A summary of the in- or out-degrees of a graph's vertices at one moment: the
+ * largest degree, the mean degree and how many vertices have each degree.
+ * Obtain one with Graph.outDegreeDistribution or Graph.inDegreeDistribution;
+ * it does not change when the graph does.
+ */
+public class DegreeDistribution {
+	private final int[] histogram;
+	private final int vertices;
+	private final long total;
+
+	DegreeDistribution(int[] histogram, int vertices, long total) {
+		this.histogram = histogram;
+		this.vertices = vertices;
+		this.total = total;
+	}
+
+	/**
+	 * @return the largest degree of any vertex, or 0 if the graph is empty
+	 */
+	public int getMaxDegree() {
+		return this.histogram.length - 1;
+	}
+
+	/**
+	 * @return the mean degree over all vertices, or 0 if the graph is empty
+	 */
+	public double getMeanDegree() {
+		return this.vertices == 0 ? 0 : (double) this.total / this.vertices;
+	}
+
+	/**
+	 * @param degree
+	 * @return the number of vertices with exactly that degree
+	 */
+	public int getCount(int degree) {
+		return degree >= 0 && degree < this.histogram.length ? this.histogram[degree] : 0;
+	}
+
+	/**
+	 * @return an array whose element d is the number of vertices with degree d,
+	 *         of length getMaxDegree() + 1
+	 */
+	public int[] getHistogram() {
+		return this.histogram.clone();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d vertices, max degree %d, mean degree %.2f", this.vertices, getMaxDegree(),
+				getMeanDegree());
+	}
+}
@@ -0,0 +1,220 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Finds the exact longest shortest path (the diameter) inside the largest
+ * strongly connected component of a graph, following the bounding approach of
+ * Takes and Kosters. A forward and a backward BFS from a vertex u give, for
+ * every vertex v of the component,
+ *
+ * ecc_out(v) <= d(v, u) + ecc_out(u) and ecc_in(v) <= d(u, v) + ecc_in(u).
+ *
+ * The diameter is both the largest out-eccentricity and the largest
+ * in-eccentricity, so once every out-eccentricity bound (or every
+ * in-eccentricity bound) drops to the longest distance seen so far, that
+ * distance is the diameter. Sources are picked alternately by largest out- and
+ * in-eccentricity bound, starting from the vertex of highest degree. On
+ * small-world graphs this stops after a handful of searches rather than one per
+ * vertex, and each search is a DirectionOptimizingBfs.
+ *
+ * sweep gives up exactness for a fixed budget of searches. A double sweep from
+ * r runs a forward BFS to a farthest vertex t and then a backward BFS from t to
+ * a farthest vertex s; d(s, t) is the in-eccentricity of t, a lower bound on
+ * the diameter that is often tight. A 4-sweep follows it with a second double
+ * sweep from the middle of the path from s to t (Crescenzi et al., "On
+ * computing the diameter of real-world undirected graphs").
+ *
+ * @param <T>
+ */
+final class DiameterFinder<T> {
+	private final Graph<T> graph;
+	private final int n;
+	private final int[] degree;
+	private final DirectionOptimizingBfs bfs;
+	private int bfsRuns;
+
+	DiameterFinder(Graph<T> graph) {
+		this.graph = graph;
+		this.n = graph.size();
+		this.bfs = new DirectionOptimizingBfs(graph);
+		this.degree = new int[this.n];
+		for (int v = 0; v < this.n; v++) {
+			this.degree[v] = graph.outDegreeById(v) + graph.inDegreeById(v);
+		}
+	}
+
+	/**
+	 * @return the longest shortest path of the largest strongly connected
+	 *         component
+	 */
+	DiameterResult<T> find() {
+		if (this.n == 0) {
+			return new DiameterResult<T>(null, null, new ArrayList<T>(), 0, new BfsCounters(), true);
+		}
+		BfsCounters before = new BfsCounters(BfsCounters.forCurrentThread());
+		SccDecomposition<T> components = this.graph.components();
+		int[] members = byDegree(components.memberIds(components.largestComponent()));
+		boolean[] inComponent = new boolean[this.n];
+		for (int v : members) {
+			inComponent[v] = true;
+		}
+
+		int[] forwardDistance = new int[this.n];
+		int[] backwardDistance = new int[this.n];
+		int[] outUpper = new int[this.n];
+		int[] inUpper = new int[this.n];
+		Arrays.fill(outUpper, Integer.MAX_VALUE);
+		Arrays.fill(inUpper, Integer.MAX_VALUE);
+
+		int lower = 0;
+		int source = members[0];
+		int target = members[0];
+		int u = members[0];
+		boolean pickByOut = true;
+		while (true) {
+			int farthest = bfs(u, true, forwardDistance, inComponent);
+			int outEccentricity = forwardDistance[farthest];
+			if (outEccentricity > lower) {
+				lower = outEccentricity;
+				source = u;
+				target = farthest;
+			}
+			farthest = bfs(u, false, backwardDistance, inComponent);
+			int inEccentricity = backwardDistance[farthest];
+			if (inEccentricity > lower) {
+				lower = inEccentricity;
+				source = farthest;
+				target = u;
+			}
+
+			int maxOut = -1, maxIn = -1;
+			int nextByOut = -1, nextByIn = -1;
+			for (int v : members) {
+				outUpper[v] = Math.min(outUpper[v], backwardDistance[v] + outEccentricity);
+				inUpper[v] = Math.min(inUpper[v], forwardDistance[v] + inEccentricity);
+				if (outUpper[v] > maxOut) {
+					maxOut = outUpper[v];
+					nextByOut = v;
+				}
+				if (inUpper[v] > maxIn) {
+					maxIn = inUpper[v];
+					nextByIn = v;
+				}
+			}
+			if (maxOut <= lower || maxIn <= lower) {
+				break;
+			}
+			u = pickByOut ? nextByOut : nextByIn;
+			pickByOut = !pickByOut;
+		}
+
+		List<T> path = BfsEngine.forCurrentThread().shortestPath(this.graph, source, target);
+		return new DiameterResult<T>(this.graph.keyOf(source), this.graph.keyOf(target), path, this.bfsRuns,
+				BfsCounters.forCurrentThread().since(before), true);
+	}
+
+	/**
+	 * Runs 4-sweeps inside the largest strongly connected component until
+	 * another double sweep would exceed maxBfsRuns searches.
+	 *
+	 * @param maxBfsRuns the most breadth-first searches to run, at least 2
+	 * @param random     picks each 4-sweep's starting vertex uniformly from the
+	 *                   component, or null to start from the vertices of highest
+	 *                   degree in turn
+	 * @return the farthest pair found, whose distance is a lower bound on the
+	 *         diameter
+	 */
+	DiameterResult<T> sweep(int maxBfsRuns, Random random) {
+		if (maxBfsRuns < 2) {
+			throw new IllegalArgumentException("maxBfsRuns must be at least 2");
+		}
+		if (this.n == 0) {
+			return new DiameterResult<T>(null, null, new ArrayList<T>(), 0, new BfsCounters(), true);
+		}
+		BfsCounters before = new BfsCounters(BfsCounters.forCurrentThread());
+		SccDecomposition<T> components = this.graph.components();
+		int[] members = byDegree(components.memberIds(components.largestComponent()));
+		boolean[] inComponent = new boolean[this.n];
+		for (int v : members) {
+			inComponent[v] = true;
+		}
+
+		int[] forwardDistance = new int[this.n];
+		int[] backwardDistance = new int[this.n];
+		int lower = 0;
+		int source = members[0];
+		int target = members[0];
+		for (int round = 0; this.bfsRuns + 2 <= maxBfsRuns; round++) {
+			int u = random == null ? members[round % members.length] : members[random.nextInt(members.length)];
+			for (int half = 0; half < 2 && this.bfsRuns + 2 <= maxBfsRuns; half++) {
+				int t = bfs(u, true, forwardDistance, inComponent);
+				int s = bfs(t, false, backwardDistance, inComponent);
+				if (backwardDistance[s] > lower) {
+					lower = backwardDistance[s];
+					source = s;
+					target = t;
+				}
+				u = midpoint(s, backwardDistance, inComponent);
+			}
+		}
+
+		List<T> path = BfsEngine.forCurrentThread().shortestPath(this.graph, source, target);
+		return new DiameterResult<T>(this.graph.keyOf(source), this.graph.keyOf(target), path, this.bfsRuns,
+				BfsCounters.forCurrentThread().since(before), false);
+	}
+
+	/**
+	 * @param s                the start of a shortest path to the target of the
+	 *                         last backward search
+	 * @param backwardDistance the distances to that target
+	 * @return the vertex half way along a shortest path from s to the target
+	 */
+	private int midpoint(int s, int[] backwardDistance, boolean[] inComponent) {
+		IdCursor cursor = this.graph.successorCursor();
+		int v = s;
+		int stop = backwardDistance[s] - backwardDistance[s] / 2;
+		while (backwardDistance[v] > stop) {
+			for (cursor.reset(v); cursor.hasNext();) {
+				int w = cursor.next();
+				if (inComponent[w] && backwardDistance[w] == backwardDistance[v] - 1) {
+					v = w;
+					break;
+				}
+			}
+		}
+		return v;
+	}
+
+	/**
+	 * Breadth-first search from source that only enters vertices marked allowed,
+	 * recording the distance of every vertex reached. The allowed vertices must be
+	 * strongly connected, so all of them are reached and overwrite any distance
+	 * left from an earlier search.
+	 *
+	 * @return the last vertex reached, which is one of the farthest
+	 */
+	private int bfs(int source, boolean forward, int[] distance, boolean[] allowed) {
+		this.bfsRuns++;
+		return this.bfs.search(source, forward, distance, allowed);
+	}
+
+	/**
+	 * @return the given ids ordered by decreasing degree, ties by increasing id
+	 */
+	private int[] byDegree(int[] ids) {
+		long[] keys = new long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			keys[i] = ((long) (Integer.MAX_VALUE - this.degree[ids[i]]) << 32) | ids[i];
+		}
+		Arrays.sort(keys);
+		int[] sorted = new int[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			sorted[i] = (int) keys[i];
+		}
+		return sorted;
+	}
+}
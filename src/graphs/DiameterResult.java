@@ -0,0 +1,87 @@
+package graphs;
+
+import java.util.List;
+
+/**
+ * The outcome of a longest-shortest-path search: the two endpoints, a shortest
+ * path between them, and how many breadth-first searches it took to find and
+ * how much work they did. An exact search finds the diameter; an approximate
+ * one finds a pair whose distance is a lower bound on it.
+ *
+ * @param <T>
+ */
+public class DiameterResult<T> {
+	private final T source;
+	private final T target;
+	private final List<T> path;
+	private final int bfsRuns;
+	private final BfsCounters counters;
+	private final boolean exact;
+
+	DiameterResult(T source, T target, List<T> path, int bfsRuns, BfsCounters counters, boolean exact) {
+		this.source = source;
+		this.target = target;
+		this.path = path;
+		this.bfsRuns = bfsRuns;
+		this.counters = counters;
+		this.exact = exact;
+	}
+
+	/**
+	 * @return the start of the path, or null if the graph is empty
+	 */
+	public T getSource() {
+		return this.source;
+	}
+
+	/**
+	 * @return the end of the path, or null if the graph is empty
+	 */
+	public T getTarget() {
+		return this.target;
+	}
+
+	/**
+	 * @return a shortest path from source to target
+	 */
+	public List<T> getPath() {
+		return this.path;
+	}
+
+	/**
+	 * @return the number of edges on the path: the diameter if isExact(),
+	 *         otherwise a lower bound on it
+	 */
+	public int getLength() {
+		return Math.max(0, this.path.size() - 1);
+	}
+
+	/**
+	 * @return the number of breadth-first searches run to find the path
+	 */
+	public int getBfsRuns() {
+		return this.bfsRuns;
+	}
+
+	/**
+	 * @return the levels expanded and edges examined by the searches, top-down
+	 *         and bottom-up
+	 */
+	public BfsCounters getBfsCounters() {
+		return this.counters;
+	}
+
+	/**
+	 * @return true if the path is a longest shortest path, false if it only
+	 *         bounds the diameter from below
+	 */
+	public boolean isExact() {
+		return this.exact;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s -> %s, length %s%d (%d BFS runs)", this.source, this.target,
+				this.exact ? "" : "at least ", getLength(), this.bfsRuns);
+	}
+}
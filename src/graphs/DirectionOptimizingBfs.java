@@ -0,0 +1,147 @@
+package graphs;
+
+/**
+ * Single-source breadth-first search that records the distance to every vertex
+ * reached, switching each level between two ways of finding the next level
+ * (Beamer, Asanovic and Patterson, "Direction-Optimizing Breadth-First
+ * Search").
+ *
+ * Top-down, every frontier vertex looks at all of its out-edges. On a
+ * small-world graph the middle levels hold most of the graph, and then nearly
+ * every one of those edges leads somewhere already visited. Bottom-up, every
+ * unvisited vertex instead looks through its in-edges for a parent in the
+ * frontier, kept as a bitset, and stops at the first one it finds. The search
+ * goes bottom-up once the frontier's out-edges outnumber the edges still
+ * unexplored divided by ALPHA, and back to top-down once the frontier shrinks
+ * below n / BETA vertices.
+ *
+ * A search may be confined to a set of allowed vertices. It can run backwards,
+ * giving distances to the source instead of from it, by swapping the roles of
+ * successors and predecessors. The work done on each level is added to the
+ * BfsCounters of the calling thread.
+ */
+final class DirectionOptimizingBfs {
+	/** Go bottom-up when frontier edges * ALPHA exceed the unexplored edges. */
+	static final int ALPHA = 14;
+	/** Go back top-down when the frontier * BETA is below the vertex count. */
+	static final int BETA = 24;
+
+	private final Graph<?> graph;
+	private final int n;
+	private final int alpha, beta;
+	private final IdCursor successors;
+	private final IdCursor predecessors;
+	private final int[] queue;
+	private final long[] frontier;
+	private final BfsCounters counters;
+
+	DirectionOptimizingBfs(Graph<?> graph) {
+		this(graph, ALPHA, BETA);
+	}
+
+	/**
+	 * With alpha 0 the search never goes bottom-up; with large alpha and beta
+	 * it goes bottom-up after the first level and stays there.
+	 */
+	DirectionOptimizingBfs(Graph<?> graph, int alpha, int beta) {
+		this.graph = graph;
+		this.n = graph.size();
+		this.alpha = alpha;
+		this.beta = beta;
+		this.successors = graph.successorCursor();
+		this.predecessors = graph.predecessorCursor();
+		this.queue = new int[this.n];
+		this.frontier = new long[(this.n + 63) >>> 6];
+		this.counters = BfsCounters.forCurrentThread();
+	}
+
+	private int degree(int v, boolean forward) {
+		return forward ? this.graph.outDegreeById(v) : this.graph.inDegreeById(v);
+	}
+
+	/**
+	 * Searches from source, setting distance[v] to the length of a shortest
+	 * path from source to v (or from v to source, if not forward) for every
+	 * vertex v reached, and to -1 for every other allowed vertex.
+	 *
+	 * @param source
+	 * @param forward  true to follow edges forwards, false to follow them
+	 *                 backwards
+	 * @param distance where the distances are written, of length at least n
+	 * @param allowed  the vertices the search may enter, or null for all; the
+	 *                 source must be one of them
+	 * @return the last vertex reached, which is one of the farthest
+	 */
+	int search(int source, boolean forward, int[] distance, boolean[] allowed) {
+		IdCursor down = forward ? this.successors : this.predecessors;
+		IdCursor up = forward ? this.predecessors : this.successors;
+		long unexplored = 0;
+		for (int v = 0; v < this.n; v++) {
+			if (allowed == null || allowed[v]) {
+				distance[v] = -1;
+				unexplored += degree(v, forward);
+			}
+		}
+		int[] queue = this.queue;
+		queue[0] = source;
+		distance[source] = 0;
+		long frontierEdges = degree(source, forward);
+		unexplored -= frontierEdges;
+
+		// each level is queue[head, tail)
+		int head = 0, tail = 1;
+		int level = 0;
+		boolean bottomUp = false;
+		while (head < tail) {
+			int size = tail - head;
+			if (!bottomUp && frontierEdges * this.alpha > unexplored) {
+				bottomUp = true;
+			} else if (bottomUp && (long) size * this.beta < this.n) {
+				bottomUp = false;
+			}
+			int levelEnd = tail;
+			long edges = 0;
+			frontierEdges = 0;
+			if (bottomUp) {
+				for (int i = head; i < levelEnd; i++) {
+					this.frontier[queue[i] >>> 6] |= 1L << queue[i];
+				}
+				for (int v = 0; v < this.n; v++) {
+					if (distance[v] != -1 || (allowed != null && !allowed[v])) {
+						continue;
+					}
+					for (up.reset(v); up.hasNext();) {
+						int u = up.next();
+						edges++;
+						if ((this.frontier[u >>> 6] & (1L << u)) != 0) {
+							distance[v] = level + 1;
+							queue[tail++] = v;
+							frontierEdges += degree(v, forward);
+							break;
+						}
+					}
+				}
+				for (int i = head; i < levelEnd; i++) {
+					this.frontier[queue[i] >>> 6] = 0;
+				}
+			} else {
+				for (int i = head; i < levelEnd; i++) {
+					for (down.reset(queue[i]); down.hasNext();) {
+						int w = down.next();
+						edges++;
+						if (distance[w] == -1 && (allowed == null || allowed[w])) {
+							distance[w] = level + 1;
+							queue[tail++] = w;
+							frontierEdges += degree(w, forward);
+						}
+					}
+				}
+			}
+			this.counters.recordLevel(bottomUp, edges);
+			unexplored -= frontierEdges;
+			head = levelEnd;
+			level++;
+		}
+		return queue[tail - 1];
+	}
+}
@@ -0,0 +1,136 @@
+package graphs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for DirectionOptimizingBfs and the bottom-up levels of the
+ * bidirectional shortest path search.
+ */
+public class DirectionOptimizingBfsTest {
+
+	/**
+	 * Plain top-down BFS to check against.
+	 */
+	private int[] distances(Graph<?> g, int source, boolean forward, boolean[] allowed) {
+		int[] distance = new int[g.size()];
+		Arrays.fill(distance, -1);
+		int[] queue = new int[g.size()];
+		int head = 0, tail = 0;
+		queue[tail++] = source;
+		distance[source] = 0;
+		IdCursor cursor = forward ? g.successorCursor() : g.predecessorCursor();
+		while (head < tail) {
+			int u = queue[head++];
+			for (cursor.reset(u); cursor.hasNext();) {
+				int w = cursor.next();
+				if (distance[w] == -1 && (allowed == null || allowed[w])) {
+					distance[w] = distance[u] + 1;
+					queue[tail++] = w;
+				}
+			}
+		}
+		return distance;
+	}
+
+	@Test
+	public void testDistancesMatchPlainBfs() {
+		Graph<Integer> g = new CsrGraph<Integer>(GraphAlgorithmsTest.makeRandomGraph(3000, 15000, 17));
+		boolean[] allowed = new boolean[g.size()];
+		for (int v = 0; v < allowed.length; v++) {
+			allowed[v] = v % 5 != 0;
+		}
+		BfsCounters counters = BfsCounters.forCurrentThread();
+		// default switching, top-down only, and bottom-up from the second level
+		int[][] thresholds = {{DirectionOptimizingBfs.ALPHA, DirectionOptimizingBfs.BETA}, {0, 0},
+				{Integer.MAX_VALUE, Integer.MAX_VALUE}};
+		for (int[] threshold : thresholds) {
+			DirectionOptimizingBfs bfs = new DirectionOptimizingBfs(g, threshold[0], threshold[1]);
+			int[] distance = new int[g.size()];
+			for (int source = 1; source < 50; source += 7) {
+				for (boolean forward : new boolean[] {true, false}) {
+					BfsCounters before = new BfsCounters(counters);
+					int farthest = bfs.search(source, forward, distance, null);
+					int[] expected = distances(g, source, forward, null);
+					assertArrayEquals(expected, distance);
+					assertEquals(Arrays.stream(expected).max().getAsInt(), distance[farthest]);
+					BfsCounters used = counters.since(before);
+					if (threshold[0] == 0) {
+						assertEquals(0, used.getBottomUpLevels());
+					} else if (threshold[0] == Integer.MAX_VALUE) {
+						assertTrue("Expected: true", used.getBottomUpEdges() > 0);
+					}
+
+					bfs.search(source, forward, distance, allowed);
+					expected = distances(g, source, forward, allowed);
+					for (int v = 0; v < allowed.length; v++) {
+						if (allowed[v]) {
+							assertEquals(expected[v], distance[v]);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBottomUpShortestPath() {
+		Graph<Integer> g = new CsrGraph<Integer>(GraphAlgorithmsTest.makeRandomGraph(2000, 6000, 23));
+		BfsEngine engine = BfsEngine.forCurrentThread();
+		int alpha = engine.alpha;
+		int beta = engine.beta;
+		try {
+			Random random = new Random(29);
+			for (int i = 0; i < 100; i++) {
+				int start = random.nextInt(g.size());
+				int end = random.nextInt(g.size());
+				engine.alpha = 0;
+				List<Integer> expected = g.shortestPath(start, end);
+				engine.alpha = Integer.MAX_VALUE;
+				engine.beta = Integer.MAX_VALUE;
+				BfsCounters before = new BfsCounters(engine.counters());
+				List<Integer> path = g.shortestPath(start, end);
+				engine.beta = beta;
+				if (expected == null) {
+					assertEquals(null, path);
+					continue;
+				}
+				assertEquals(expected.size(), path.size());
+				assertEquals(Integer.valueOf(start), path.get(0));
+				assertEquals(Integer.valueOf(end), path.get(path.size() - 1));
+				for (int j = 1; j < path.size(); j++) {
+					assertTrue("Expected: true", g.hasEdge(path.get(j - 1), path.get(j)));
+				}
+				if (path.size() > 2) {
+					assertTrue("Expected: true", engine.counters().since(before).getBottomUpLevels() > 0);
+				}
+			}
+		} finally {
+			engine.alpha = alpha;
+			engine.beta = beta;
+		}
+	}
+
+	@Test
+	public void testEccentricity() {
+		Set<String> keys = new HashSet<String>(Arrays.asList("a", "b", "c", "d", "e"));
+		Graph<String> g = new AdjacencyListGraph<String>(keys);
+		g.addEdge("a", "b");
+		g.addEdge("b", "c");
+		g.addEdge("c", "d");
+		g.addEdge("a", "d");
+		assertEquals(2, g.eccentricity("a"));
+		assertEquals(2, g.eccentricity("b"));
+		assertEquals(0, g.eccentricity("d"));
+		assertEquals(0, g.eccentricity("e"));
+	}
+}
@@ -0,0 +1,179 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A batch of edges between vertex ids, sorted by source and then target with
+ * duplicates removed, and laid out as CSR rows: the targets of source v are
+ * targets[offsets[v] .. offsets[v + 1] - 1], in increasing order. Graphs merge
+ * a batch into their adjacency in one pass over the rows, and CsrGraph uses
+ * the rows as they are.
+ *
+ * Sorting is a most-significant-digit radix sort on the source id. One
+ * parallel pass over chunks of the input scatters every edge, packed into a
+ * long as source then target, into the bucket for the top bits of its
+ * source. The buckets cover disjoint ranges of sources, so they are then
+ * sorted, deduplicated and written out independently, in parallel.
+ */
+final class EdgeBatch {
+	/** Bits of the source id that pick the bucket. */
+	private static final int BUCKET_BITS = 12;
+	/** Smallest number of edges worth handing to another thread. */
+	private static final int MIN_PARALLEL_EDGES = 1 << 16;
+
+	final int[] offsets;
+	final int[] targets;
+	/** The number of edges given, duplicates included. */
+	final int received;
+
+	private EdgeBatch(int[] offsets, int[] targets, int received) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.received = received;
+	}
+
+	/**
+	 * @return the number of distinct edges in the batch
+	 */
+	int size() {
+		return this.targets.length;
+	}
+
+	/**
+	 * Sorts and deduplicates the first count edges of a pair of id arrays.
+	 *
+	 * @param n           the number of vertices; ids must be in [0, n)
+	 * @param from        source id of each edge
+	 * @param to          target id of each edge
+	 * @param count       number of edges to read from the arrays
+	 * @param parallelism the number of threads to sort with
+	 * @return the batch
+	 * @throws NoSuchElementException if an id is not in [0, n)
+	 */
+	static EdgeBatch sort(int n, int[] from, int[] to, int count, int parallelism) throws NoSuchElementException {
+		if (from.length < count || to.length < count) {
+			throw new IllegalArgumentException("Edge arrays are shorter than the count");
+		}
+		if (parallelism <= 1 || count < MIN_PARALLEL_EDGES) {
+			return new Sort(n, from, to, count, 1).run();
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			Sort sort = new Sort(n, from, to, count, parallelism);
+			return pool.invoke(ForkJoinTask.adapt(sort::run));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static class Sort {
+		final int n;
+		final int[] from, to;
+		final int count;
+		final int chunks;
+		final int shift;
+		final int buckets;
+		final boolean parallel;
+
+		Sort(int n, int[] from, int[] to, int count, int parallelism) {
+			this.n = n;
+			this.from = from;
+			this.to = to;
+			this.count = count;
+			this.parallel = parallelism > 1;
+			this.chunks = this.parallel ? 4 * parallelism : 1;
+			int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+			this.shift = Math.max(0, bits - BUCKET_BITS);
+			this.buckets = ((Math.max(1, n) - 1) >>> this.shift) + 1;
+		}
+
+		private void forEach(int tasks, IntConsumer body) {
+			IntStream range = IntStream.range(0, tasks);
+			(this.parallel ? range.parallel() : range).forEach(body);
+		}
+
+		EdgeBatch run() {
+			// count the edges of each chunk that fall in each bucket
+			int[][] counts = new int[this.chunks][this.buckets];
+			forEach(this.chunks, c -> {
+				int[] chunkCounts = counts[c];
+				for (int i = start(c); i < start(c + 1); i++) {
+					int v = this.from[i];
+					int w = this.to[i];
+					if (v < 0 || v >= this.n || w < 0 || w >= this.n) {
+						throw new NoSuchElementException();
+					}
+					chunkCounts[v >>> this.shift]++;
+				}
+			});
+
+			// turn the counts into write positions: bucket b holds chunk 0's
+			// edges first, then chunk 1's, and so on
+			int[] bucketStart = new int[this.buckets + 1];
+			int position = 0;
+			for (int b = 0; b < this.buckets; b++) {
+				bucketStart[b] = position;
+				for (int c = 0; c < this.chunks; c++) {
+					int chunkCount = counts[c][b];
+					counts[c][b] = position;
+					position += chunkCount;
+				}
+			}
+			bucketStart[this.buckets] = position;
+
+			long[] keys = new long[this.count];
+			forEach(this.chunks, c -> {
+				int[] fill = counts[c];
+				for (int i = start(c); i < start(c + 1); i++) {
+					int v = this.from[i];
+					keys[fill[v >>> this.shift]++] = (long) v << 32 | this.to[i];
+				}
+			});
+
+			// sort each bucket and squeeze out duplicates in place
+			int[] unique = new int[this.buckets + 1];
+			forEach(this.buckets, b -> {
+				int start = bucketStart[b];
+				int end = bucketStart[b + 1];
+				Arrays.sort(keys, start, end);
+				int write = start;
+				for (int i = start; i < end; i++) {
+					if (i == start || keys[i] != keys[i - 1]) {
+						keys[write++] = keys[i];
+					}
+				}
+				unique[b + 1] = write - start;
+			});
+			for (int b = 0; b < this.buckets; b++) {
+				unique[b + 1] += unique[b];
+			}
+
+			// write out the rows of each bucket's sources
+			int[] offsets = new int[this.n + 1];
+			int[] targets = new int[unique[this.buckets]];
+			forEach(this.buckets, b -> {
+				int read = bucketStart[b];
+				int write = unique[b];
+				int end = write + unique[b + 1] - unique[b];
+				int lastSource = Math.min(this.n, (b + 1) << this.shift);
+				for (int v = b << this.shift; v < lastSource; v++) {
+					offsets[v] = write;
+					while (write < end && (int) (keys[read] >>> 32) == v) {
+						targets[write++] = (int) keys[read++];
+					}
+				}
+			});
+			offsets[this.n] = targets.length;
+			return new EdgeBatch(offsets, targets, this.count);
+		}
+
+		private int start(int chunk) {
+			return (int) ((long) this.count * chunk / this.chunks);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package graphs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * Test cases for EdgeBatch and the bulk edge insertion built on it.
+ */
+public class EdgeBatchTest {
+
+	@Test
+	public void testSortAndDedupe() {
+		int[] from = {2, 0, 2, 0, 1, 2, 0};
+		int[] to = {1, 3, 0, 1, 3, 1, 3};
+		EdgeBatch batch = EdgeBatch.sort(4, from, to, from.length, 1);
+		assertArrayEquals(new int[] {0, 2, 3, 5, 5}, batch.offsets);
+		assertArrayEquals(new int[] {1, 3, 3, 0, 1}, batch.targets);
+		assertEquals(7, batch.received);
+		try {
+			EdgeBatch.sort(4, new int[] {0, 4}, new int[] {1, 1}, 2, 1);
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testParallelSortMatchesSequential() {
+		// enough vertices for many buckets, and enough edges to go parallel
+		int n = 50000;
+		int m = 300000;
+		Random random = new Random(5);
+		int[] from = new int[m];
+		int[] to = new int[m];
+		for (int i = 0; i < m; i++) {
+			from[i] = random.nextInt(n);
+			to[i] = random.nextInt(n / 10);
+		}
+		EdgeBatch expected = EdgeBatch.sort(n, from, to, m, 1);
+		EdgeBatch actual = EdgeBatch.sort(n, from, to, m, 4);
+		assertArrayEquals(expected.offsets, actual.offsets);
+		assertArrayEquals(expected.targets, actual.targets);
+
+		Set<Long> distinct = new TreeSet<Long>();
+		for (int i = 0; i < m; i++) {
+			distinct.add((long) from[i] << 32 | to[i]);
+		}
+		assertEquals(distinct.size(), actual.size());
+		int i = 0;
+		for (long edge : distinct) {
+			int v = (int) (edge >>> 32);
+			assertTrue("Expected: true", actual.offsets[v] <= i && i < actual.offsets[v + 1]);
+			assertEquals((int) edge, actual.targets[i++]);
+		}
+	}
+
+	private void helperTestAddEdgesById(Graph<Integer> g) {
+		g.addEdge(0, 1);
+		int[] from = {g.idOf(0), g.idOf(2), g.idOf(2), g.idOf(3), g.idOf(0)};
+		int[] to = {g.idOf(1), g.idOf(3), g.idOf(3), g.idOf(0), g.idOf(2)};
+		BulkAddResult result = g.addEdgesById(from, to);
+		assertEquals(3, result.getAdded());
+		assertEquals(2, result.getDuplicates());
+		assertEquals(4, g.numEdges());
+		assertTrue("Expected: true", g.hasEdge(2, 3));
+		assertTrue("Expected: true", g.hasEdge(3, 0));
+		assertEquals(2, g.outDegree(0));
+		assertEquals(1, g.inDegree(0));
+		assertEquals(new HashSet<Integer>(Arrays.asList(0, 2, 3)), g.stronglyConnectedComponent(3));
+		try {
+			g.addEdgesById(new int[] {0, 9}, new int[] {3, 1});
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+		assertFalse("Expected: false", g.hasEdge(0, 3));
+	}
+
+	@Test
+	public void testAddEdgesById() {
+		Set<Integer> keys = new HashSet<Integer>();
+		for (int i = 0; i < 5; i++) {
+			keys.add(i);
+		}
+		helperTestAddEdgesById(new AdjacencyListGraph<Integer>(keys));
+		helperTestAddEdgesById(new AdjacencyMatrixGraph<Integer>(keys));
+		helperTestAddEdgesById(new IntAdjacencyListGraph(5).asGraph());
+	}
+
+	@Test
+	public void testAddEdgesByIdToHubs() {
+		// hub rows cross the AdjacencySet threshold in the middle of a merge
+		int n = 1000;
+		Set<Integer> keys = new HashSet<Integer>();
+		for (int i = 0; i < n; i++) {
+			keys.add(i);
+		}
+		Graph<Integer> bulk = new AdjacencyListGraph<Integer>(keys);
+		Graph<Integer> single = new AdjacencyListGraph<Integer>(keys);
+		Random random = new Random(3);
+		for (int round = 0; round < 3; round++) {
+			int[] from = new int[5000];
+			int[] to = new int[5000];
+			for (int i = 0; i < from.length; i++) {
+				from[i] = random.nextInt(4);
+				to[i] = random.nextInt(n);
+			}
+			int added = 0;
+			for (int i = 0; i < from.length; i++) {
+				if (single.addEdgeById(from[i], to[i])) {
+					added++;
+				}
+			}
+			assertEquals(added, bulk.addEdgesById(from, to).getAdded());
+		}
+		assertEquals(single.numEdges(), bulk.numEdges());
+		for (int v = 0; v < n; v++) {
+			assertEquals(single.successorSet(single.keyOf(v)), bulk.successorSet(single.keyOf(v)));
+			assertEquals(single.predecessorSet(single.keyOf(v)), bulk.predecessorSet(single.keyOf(v)));
+		}
+	}
+}
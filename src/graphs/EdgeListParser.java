@@ -0,0 +1,189 @@
+package graphs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses an edge list file, one "from to" pair of non-negative decimal
+ * indices per line, into int arrays of vertex ids. The file is split into
+ * chunks that are memory-mapped and parsed in parallel; a chunk owns every
+ * line that starts inside it, so boundaries never split a line. Indices go
+ * through a plain int table to vertex ids, and edges whose endpoints have no
+ * id are dropped, so nothing is boxed or hashed along the way.
+ *
+ * Edges come out in file order, whatever the number of threads.
+ */
+final class EdgeListParser {
+	/** Smallest chunk worth handing to a thread. */
+	private static final long MIN_CHUNK_BYTES = 1 << 20;
+	/** How far past its end a chunk maps, to finish its last line. */
+	private static final int MAX_LINE_BYTES = 256;
+
+	private EdgeListParser() {
+	}
+
+	/**
+	 * @param file
+	 * @param indexToId   vertex id of each index in the file, or -1 for none;
+	 *                    indices past the end of the table have no id either
+	 * @param parallelism the number of threads to parse with
+	 * @return two arrays of equal length, the source ids and the target ids
+	 * @throws IOException if the file cannot be read or a line is not a pair
+	 *                     of indices
+	 */
+	static int[][] parse(File file, int[] indexToId, int parallelism) throws IOException {
+		return parse(file, indexToId, parallelism, MIN_CHUNK_BYTES);
+	}
+
+	/**
+	 * As parse, with a given smallest chunk size.
+	 */
+	static int[][] parse(File file, int[] indexToId, int parallelism, long minChunkBytes) throws IOException {
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			int chunks = (int) Math.max(1, Math.min(4L * parallelism, size / minChunkBytes));
+			List<Callable<int[][]>> tasks = new ArrayList<Callable<int[][]>>(chunks);
+			for (int i = 0; i < chunks; i++) {
+				long start = size * i / chunks;
+				long end = size * (i + 1) / chunks;
+				tasks.add(() -> parseChunk(channel, size, start, end, indexToId));
+			}
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			List<int[][]> parts = new ArrayList<int[][]>(chunks);
+			try {
+				for (Future<int[][]> future : pool.invokeAll(tasks)) {
+					parts.add(future.get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while parsing " + file, e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw new IOException(e.getCause().getMessage() + ": " + file, e.getCause());
+				}
+				throw new IOException("Could not parse " + file, e.getCause());
+			} finally {
+				pool.shutdown();
+			}
+
+			int count = 0;
+			for (int[][] part : parts) {
+				count += part[2][0];
+			}
+			int[] from = new int[count];
+			int[] to = new int[count];
+			int position = 0;
+			for (int[][] part : parts) {
+				System.arraycopy(part[0], 0, from, position, part[2][0]);
+				System.arraycopy(part[1], 0, to, position, part[2][0]);
+				position += part[2][0];
+			}
+			return new int[][] { from, to };
+		}
+	}
+
+	/**
+	 * Parses the lines that start in [start, end).
+	 *
+	 * @return {from, to, {count}}
+	 */
+	private static int[][] parseChunk(FileChannel channel, long size, long start, long end, int[] indexToId)
+			throws IOException {
+		// map one byte early to see whether start begins a line, and a little
+		// past the end to finish the last line
+		long mapStart = start == 0 ? 0 : start - 1;
+		long mapEnd = Math.min(size, end + MAX_LINE_BYTES);
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+		int limit = (int) (end - mapStart);
+		int length = buffer.limit();
+		boolean atEof = mapEnd == size;
+
+		int p = 0;
+		if (start > 0) {
+			// the line running into this chunk belongs to the previous one
+			while (p < length && buffer.get(p) != '\n') {
+				p++;
+			}
+			p++;
+		}
+
+		int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (end - start) / 8 + 16);
+		int[] from = new int[capacity];
+		int[] to = new int[capacity];
+		int count = 0;
+		while (p < limit) {
+			p = skipBlanks(buffer, p, length);
+			if (p < length && buffer.get(p) == '\n') {
+				p++;
+				continue;
+			}
+			if (p == length) {
+				break;
+			}
+			long a = 0, b = 0;
+			int digits = 0;
+			for (byte c; p < length && (c = buffer.get(p)) >= '0' && c <= '9'; p++, digits++) {
+				a = 10 * a + (c - '0');
+			}
+			if (digits == 0 || digits > 10) {
+				throw malformed(mapStart + p);
+			}
+			p = skipBlanks(buffer, p, length);
+			digits = 0;
+			for (byte c; p < length && (c = buffer.get(p)) >= '0' && c <= '9'; p++, digits++) {
+				b = 10 * b + (c - '0');
+			}
+			if (digits == 0 || digits > 10 || a > Integer.MAX_VALUE || b > Integer.MAX_VALUE) {
+				throw malformed(mapStart + p);
+			}
+			p = skipBlanks(buffer, p, length);
+			if (p < length) {
+				if (buffer.get(p) != '\n') {
+					throw malformed(mapStart + p);
+				}
+				p++;
+			} else if (!atEof) {
+				throw new IOException("Line longer than " + MAX_LINE_BYTES + " bytes at byte " + start);
+			}
+
+			int fromId = a < indexToId.length ? indexToId[(int) a] : -1;
+			int toId = b < indexToId.length ? indexToId[(int) b] : -1;
+			if (fromId != -1 && toId != -1) {
+				if (count == from.length) {
+					from = Arrays.copyOf(from, 2 * count);
+					to = Arrays.copyOf(to, 2 * count);
+				}
+				from[count] = fromId;
+				to[count] = toId;
+				count++;
+			}
+		}
+		return new int[][] { from, to, { count } };
+	}
+
+	private static int skipBlanks(MappedByteBuffer buffer, int p, int length) {
+		while (p < length) {
+			byte c = buffer.get(p);
+			if (c != ' ' && c != '\t' && c != '\r') {
+				break;
+			}
+			p++;
+		}
+		return p;
+	}
+
+	private static IOException malformed(long position) {
+		return new IOException("Expected a pair of indices at byte " + position);
+	}
+}
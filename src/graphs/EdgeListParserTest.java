@@ -0,0 +1,74 @@
+package graphs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test cases for EdgeListParser.
+ */
+public class EdgeListParserTest {
+
+	private File writeFile(String contents) throws IOException {
+		File file = File.createTempFile("links", ".txt");
+		file.deleteOnExit();
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(contents.getBytes(StandardCharsets.US_ASCII));
+		}
+		return file;
+	}
+
+	@Test
+	public void testParsesPairsAndDropsUnknownIndices() throws IOException {
+		File file = writeFile("3 1\n1 4\r\n\n  7\t3 \n4 100\n9 1");
+		int[] indexToId = {-1, 10, -1, 30, 40, -1, -1, 70, -1, 90};
+		int[][] edges = EdgeListParser.parse(file, indexToId, 2);
+		assertArrayEquals(new int[] {30, 10, 70, 90}, edges[0]);
+		assertArrayEquals(new int[] {10, 40, 30, 10}, edges[1]);
+	}
+
+	@Test
+	public void testChunkBoundariesKeepEveryLine() throws IOException {
+		Random random = new Random(5);
+		StringBuilder contents = new StringBuilder();
+		int[] from = new int[5000];
+		int[] to = new int[5000];
+		for (int i = 0; i < from.length; i++) {
+			from[i] = random.nextInt(1000);
+			to[i] = random.nextInt(1000);
+			contents.append(from[i]).append(' ').append(to[i]).append(i % 7 == 0 ? "\r\n" : "\n");
+		}
+		File file = writeFile(contents.toString());
+		int[] identity = new int[1000];
+		for (int i = 0; i < identity.length; i++) {
+			identity[i] = i;
+		}
+		for (int chunkBytes : new int[] {1, 7, 64, 1 << 20}) {
+			int[][] edges = EdgeListParser.parse(file, identity, 4, chunkBytes);
+			assertArrayEquals(from, edges[0]);
+			assertArrayEquals(to, edges[1]);
+		}
+	}
+
+	@Test
+	public void testRejectsMalformedLines() throws IOException {
+		for (String contents : Arrays.asList("1 2\n3\n", "1 2\n3 x\n", "1 -2\n", "1 2 3\n", "99999999999 1\n")) {
+			try {
+				EdgeListParser.parse(writeFile(contents), new int[4], 1);
+				fail("Did not throw IOException for " + contents);
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		assertEquals(0, EdgeListParser.parse(writeFile(""), new int[4], 1)[0].length);
+	}
+}
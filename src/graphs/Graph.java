@@ -1,15 +1,16 @@
 package graphs;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Queue;
+import java.util.Random;
 import java.util.Set;
-import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Abstract class to represent the Graph ADT. It is assumed that every vertex
@@ -21,6 +22,9 @@ import java.util.Stack;
  * @param <T>
  */
 public abstract class Graph<T> {
+	private volatile SccDecomposition<T> components;
+	// successor and predecessor cursors lent to one BfsEngine search at a time
+	private final AtomicReference<IdCursor[]> spareCursors = new AtomicReference<IdCursor[]>();
 
 	/**
 	 * Returns the number of vertices in the graph.
@@ -141,6 +145,260 @@ public abstract class Graph<T> {
 	 */
 	public abstract Iterator<T> predecessorIterator(T key) throws NoSuchElementException;
 
+	/**
+	 * Every vertex has a dense id in [0, size()) that the traversal algorithms
+	 * use in place of its key. Resolving keys to ids once and then calling the
+	 * ById operations skips the key lookups of the keyed operations.
+	 *
+	 * @param key
+	 * @return the id of the vertex containing key, or -1 if there is none
+	 */
+	public abstract int idOf(T key);
+
+	/**
+	 * @param id
+	 * @return the key of the vertex with the given id
+	 * @throws NoSuchElementException if no vertex has that id
+	 */
+	public abstract T keyOf(int id) throws NoSuchElementException;
+
+	/**
+	 * As addEdge, on vertex ids.
+	 *
+	 * @param from
+	 * @param to
+	 * @return true if the add is successful, false if the edge is already in the
+	 *         graph.
+	 * @throws NoSuchElementException if either id is not in the graph
+	 */
+	public abstract boolean addEdgeById(int from, int to) throws NoSuchElementException;
+
+	/**
+	 * Adds a batch of edges given as parallel arrays of vertex ids, using every
+	 * available processor to sort it. See addEdgesById(int[], int[], int).
+	 *
+	 * @param from source id of each edge
+	 * @param to   target id of each edge
+	 * @return how many edges were added and how many were skipped
+	 * @throws NoSuchElementException if any id is not in the graph
+	 */
+	public BulkAddResult addEdgesById(int[] from, int[] to) throws NoSuchElementException {
+		return addEdgesById(from, to, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Adds a batch of edges given as parallel arrays of vertex ids. The batch
+	 * is sorted by source and deduplicated in parallel, then merged into the
+	 * graph a source vertex at a time, which is much cheaper than calling
+	 * addEdgeById once per edge. Edges repeated in the batch or already in the
+	 * graph are skipped and counted. If an id is out of range, no edge is
+	 * added.
+	 *
+	 * @param from        source id of each edge
+	 * @param to          target id of each edge
+	 * @param parallelism the number of threads to sort with
+	 * @return how many edges were added and how many were skipped
+	 * @throws NoSuchElementException if any id is not in the graph
+	 */
+	public BulkAddResult addEdgesById(int[] from, int[] to, int parallelism) throws NoSuchElementException {
+		if (from.length != to.length) {
+			throw new IllegalArgumentException("Edge arrays differ in length");
+		}
+		return mergeEdges(EdgeBatch.sort(size(), from, to, from.length, parallelism));
+	}
+
+	/**
+	 * Adds the edges of a sorted batch one by one. Graphs override this with a
+	 * merge that works on their own storage directly.
+	 *
+	 * @param batch
+	 * @return how many edges were added and how many were skipped
+	 */
+	BulkAddResult mergeEdges(EdgeBatch batch) {
+		int added = 0;
+		for (int v = 0; v < size(); v++) {
+			for (int i = batch.offsets[v]; i < batch.offsets[v + 1]; i++) {
+				if (addEdgeById(v, batch.targets[i])) {
+					added++;
+				}
+			}
+		}
+		return new BulkAddResult(added, batch.received - added);
+	}
+
+	/**
+	 * As hasEdge, on vertex ids.
+	 *
+	 * @param from
+	 * @param to
+	 * @return true if the directed edge (from, to) is in the graph
+	 * @throws NoSuchElementException if either id is not in the graph
+	 */
+	public abstract boolean hasEdgeById(int from, int to) throws NoSuchElementException;
+
+	/**
+	 * As removeEdge, on vertex ids.
+	 *
+	 * @param from
+	 * @param to
+	 * @return true if the remove is successful, false if the edge is not in the
+	 *         graph.
+	 * @throws NoSuchElementException if either id is not in the graph
+	 */
+	public abstract boolean removeEdgeById(int from, int to) throws NoSuchElementException;
+
+	/**
+	 * As outDegree, on a vertex id.
+	 *
+	 * @param id
+	 * @return the number of successors of the vertex
+	 * @throws NoSuchElementException if the id is not in the graph
+	 */
+	public abstract int outDegreeById(int id) throws NoSuchElementException;
+
+	/**
+	 * As inDegree, on a vertex id.
+	 *
+	 * @param id
+	 * @return the number of predecessors of the vertex
+	 * @throws NoSuchElementException if the id is not in the graph
+	 */
+	public abstract int inDegreeById(int id) throws NoSuchElementException;
+
+	/**
+	 * Orders the vertices as the landmark indexes pick their hubs.
+	 *
+	 * @param graph
+	 * @return the vertex ids by decreasing total degree, ties by increasing id
+	 */
+	static int[] idsByDegree(Graph<?> graph) {
+		int n = graph.size();
+		long[] keys = new long[n];
+		for (int v = 0; v < n; v++) {
+			int degree = graph.outDegreeById(v) + graph.inDegreeById(v);
+			keys[v] = ((long) (Integer.MAX_VALUE - degree) << 32) | v;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = (int) keys[i];
+		}
+		return order;
+	}
+
+	/**
+	 * Summarizes the out-degrees of all vertices. This takes one pass over the
+	 * vertices; graphs that keep degree counters return it without one.
+	 *
+	 * @return the current out-degree distribution
+	 */
+	public DegreeDistribution outDegreeDistribution() {
+		return DegreeCounter.scan(this, true);
+	}
+
+	/**
+	 * As outDegreeDistribution, over in-degrees.
+	 *
+	 * @return the current in-degree distribution
+	 */
+	public DegreeDistribution inDegreeDistribution() {
+		return DegreeCounter.scan(this, false);
+	}
+
+	/**
+	 * @param id
+	 * @return id
+	 * @throws NoSuchElementException if id is not in [0, size())
+	 */
+	int checkId(int id) throws NoSuchElementException {
+		if (id < 0 || id >= size()) {
+			throw new NoSuchElementException();
+		}
+		return id;
+	}
+
+	/**
+	 * @param key
+	 * @return the id of the vertex containing key
+	 * @throws NoSuchElementException if the key is not found in the graph
+	 */
+	int requireId(T key) throws NoSuchElementException {
+		int id = idOf(key);
+		if (id == -1) {
+			throw new NoSuchElementException();
+		}
+		return id;
+	}
+
+	/**
+	 * Returns a cursor over the successor ids of a vertex, to be pointed at one
+	 * vertex id after another with reset. Walking neighbours this way allocates
+	 * nothing after the cursor itself. Ids passed to reset must be in
+	 * [0, size()).
+	 * 
+	 * @return a new cursor over the successor ids of a vertex
+	 */
+	public abstract IdCursor successorCursor();
+
+	/**
+	 * As successorCursor, over predecessor ids.
+	 * 
+	 * @return a new cursor over the predecessor ids of a vertex
+	 */
+	public abstract IdCursor predecessorCursor();
+
+	/**
+	 * Passes each successor of a vertex to the action, without building a set.
+	 * 
+	 * @param key
+	 * @param action
+	 * @throws NoSuchElementException if the key is not found in the graph
+	 */
+	public void forEachSuccessor(T key, Consumer<? super T> action) throws NoSuchElementException {
+		for (IdCursor cursor = successorCursor().reset(requireId(key)); cursor.hasNext();) {
+			action.accept(keyOf(cursor.next()));
+		}
+	}
+
+	/**
+	 * Passes each predecessor of a vertex to the action, without building a set.
+	 * 
+	 * @param key
+	 * @param action
+	 * @throws NoSuchElementException if the key is not found in the graph
+	 */
+	public void forEachPredecessor(T key, Consumer<? super T> action) throws NoSuchElementException {
+		for (IdCursor cursor = predecessorCursor().reset(requireId(key)); cursor.hasNext();) {
+			action.accept(keyOf(cursor.next()));
+		}
+	}
+
+	/**
+	 * As forEachSuccessor, on vertex ids.
+	 * 
+	 * @param id
+	 * @param action
+	 * @throws NoSuchElementException if the id is not in the graph
+	 */
+	public void forEachSuccessorById(int id, IntConsumer action) throws NoSuchElementException {
+		for (IdCursor cursor = successorCursor().reset(checkId(id)); cursor.hasNext();) {
+			action.accept(cursor.next());
+		}
+	}
+
+	/**
+	 * As forEachPredecessor, on vertex ids.
+	 * 
+	 * @param id
+	 * @param action
+	 * @throws NoSuchElementException if the id is not in the graph
+	 */
+	public void forEachPredecessorById(int id, IntConsumer action) throws NoSuchElementException {
+		for (IdCursor cursor = predecessorCursor().reset(checkId(id)); cursor.hasNext();) {
+			action.accept(cursor.next());
+		}
+	}
+
 	/**
 	 * Finds the strongly-connected component of the provided key.
 	 * 
@@ -148,49 +406,119 @@ public abstract class Graph<T> {
 	 * @return a set containing all data in the strongly connected component of the
 	 *         vertex containing key
 	 * @throws NoSuchElementException if the key is not found in the graph
-	 * 
-	 *                                store succ and pred as sets!!! also still need
-	 *                                visited
 	 */
 	public Set<T> stronglyConnectedComponent(T key) throws NoSuchElementException {
-		Set<T> successors = new HashSet<T>();
-		Set<T> predecessors = new HashSet<>();
-		Stack<T> searchForward = new Stack<T>();
-		Stack<T> searchBackward = new Stack<T>();
-		HashSet<T> visited = new HashSet<T>();
-
-		searchForward.push(key);
-		searchBackward.push(key);
-		while (!searchForward.isEmpty()) {
-			T forward = searchForward.pop();
-			visited.add(forward);
-			for (T fKey : successorSet(forward)) {
-				if (!visited.contains(fKey)) {
-					searchForward.push(fKey);
-				}
-			}
+		SccDecomposition<T> components = components();
+		return components.members(components.componentOf(key));
+	}
+
+	/**
+	 * As stronglyConnectedComponent, on vertex ids.
+	 * 
+	 * @param id
+	 * @return the ids of the vertices in the strongly connected component of id
+	 * @throws NoSuchElementException if the id is not in the graph
+	 */
+	public int[] stronglyConnectedComponentById(int id) throws NoSuchElementException {
+		SccDecomposition<T> components = components();
+		return components.memberIds(components.componentOfId(checkId(id)));
+	}
+
+	/**
+	 * Labels every vertex with its strongly connected component. The labeling is
+	 * computed once and reused until an edge is added or removed.
+	 * 
+	 * @return the component labeling of the current graph
+	 */
+	public SccDecomposition<T> components() {
+		SccDecomposition<T> components = this.components;
+		if (components == null) {
+			components = new SccDecomposition<T>(this);
+			this.components = components;
+		}
+		return components;
+	}
 
-			successors.add(forward);
+	/**
+	 * Takes the graph's spare successor and predecessor cursors, or makes a new
+	 * pair if another search holds them. The spare pair belongs to the graph, so
+	 * it is reused for as long as the graph lives and collected with it.
+	 * 
+	 * @return a successor cursor and a predecessor cursor, to be handed back to
+	 *         returnCursors
+	 */
+	IdCursor[] takeCursors() {
+		IdCursor[] cursors = this.spareCursors.getAndSet(null);
+		if (cursors == null) {
+			cursors = new IdCursor[] { successorCursor(), predecessorCursor() };
 		}
-		visited.clear();
-		while (!searchBackward.isEmpty()) {
-			T backward = searchBackward.pop();
-			visited.add(backward);
-
-			for (T bKey : predecessorSet(backward)) {
-				if (!visited.contains(bKey)) {
-					searchBackward.push(bKey);
-				}
-			}
-			predecessors.add(backward);
+		return cursors;
+	}
+
+	/**
+	 * Keeps cursors from takeCursors as the spare pair for the next search.
+	 * 
+	 * @param cursors
+	 */
+	void returnCursors(IdCursor[] cursors) {
+		this.spareCursors.set(cursors);
+	}
 
+	/**
+	 * Computes the same labeling as components() with the parallel
+	 * forward-backward algorithm, and caches it in the same way.
+	 * 
+	 * @param parallelism the number of worker threads to use
+	 * @return the component labeling of the current graph
+	 */
+	public SccDecomposition<T> parallelComponents(int parallelism) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			SccDecomposition<T> components = new SccDecomposition<T>(this, ParallelSccDecomposition.label(this, pool));
+			this.components = components;
+			return components;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * @param key
+	 * @return the number of vertices in the strongly connected component of key
+	 * @throws NoSuchElementException if the key is not found in the graph
+	 */
+	public int componentSize(T key) throws NoSuchElementException {
+		SccDecomposition<T> components = components();
+		return components.componentSize(components.componentOf(key));
+	}
+
+	/**
+	 * @return the data of a strongly connected component with the most vertices
+	 */
+	public Set<T> largestStronglyConnectedComponent() {
+		SccDecomposition<T> components = components();
+		if (components.largestComponent() == -1) {
+			return new HashSet<T>();
 		}
-		successors.retainAll(predecessors);
-		return successors;
+		return components.members(components.largestComponent());
+	}
+
+	/**
+	 * Drops everything cached about the edge set. Implementations call this
+	 * whenever addEdge or removeEdge changes the graph.
+	 */
+	void edgesChanged() {
+		this.components = null;
 	}
 
 	/**
 	 * Searches for the shortest path between start and end points in the graph.
+	 * Runs a bidirectional breadth-first search: one search grows forward from
+	 * start along successors, the other grows backward from end along
+	 * predecessors, and each step expands a full level of whichever frontier is
+	 * smaller. The first vertex reached by both searches lies on a shortest path,
+	 * which is then rebuilt from the parent pointers on each side. The search
+	 * runs on vertex ids in BfsEngine's per-thread buffers.
 	 * 
 	 * @param start
 	 * @param end
@@ -199,116 +527,197 @@ public abstract class Graph<T> {
 	 * @throws NoSuchElementException if either key is not found in the graph
 	 */
 	public List<T> shortestPath(T startLabel, T endLabel) throws NoSuchElementException {
-		if (!hasVertex(startLabel) || !hasVertex(endLabel)) {
-			throw new NoSuchElementException();
-		}
-		LinkedList<LinkedList<T>> paths = new LinkedList<LinkedList<T>>();
-		LinkedList<T> best = new LinkedList<T>();
-		Set<T> visited = new HashSet<T>();
-		int bestSize = -1;
-
-		LinkedList<T> list = new LinkedList<T>();
-		list.add(startLabel);
-		paths.add(list);
+		int start = requireId(startLabel);
+		int end = requireId(endLabel);
+		return BfsEngine.forCurrentThread().shortestPath(this, start, end);
+	}
 
-		if (startLabel.equals(endLabel)) {
-			return list;
-		}
+	/**
+	 * As shortestPath, on vertex ids.
+	 * 
+	 * @param start
+	 * @param end
+	 * @return the ids along a shortest path from start to end, or null if no
+	 *         such path is found.
+	 * @throws NoSuchElementException if either id is not in the graph
+	 */
+	public int[] shortestPathById(int start, int end) throws NoSuchElementException {
+		return BfsEngine.forCurrentThread().shortestPathIds(this, checkId(start), checkId(end));
+	}
 
-		while (!paths.isEmpty()) {
-			LinkedList<T> next = paths.remove();
+	/**
+	 * Finds the longest shortest path in the largest strongly connected component
+	 * of the graph.
+	 * 
+	 * @return a list of data along that path, or an empty list if the graph has no
+	 *         vertices
+	 */
+	public List<T> slPath() {
+		return diameter().getPath();
+	}
 
-			if (next.size() > bestSize && bestSize != -1) {
-				continue;
-			}
+	/**
+	 * Finds a long shortest path in the largest strongly connected component
+	 * quickly, without proving it longest: runs 4-sweeps from the vertices of
+	 * highest degree until the budget of searches is spent; see DiameterFinder.
+	 *
+	 * @param maxBfsRuns the most breadth-first searches to run, at least 2
+	 * @return the endpoints and path found; its length is a lower bound on the
+	 *         diameter
+	 */
+	public DiameterResult<T> approximateDiameter(int maxBfsRuns) {
+		return new DiameterFinder<T>(this).sweep(maxBfsRuns, null);
+	}
 
-			for (T nKey : successorSet(next.getLast())) {
-				if (!visited.contains(nKey)) {
-					visited.add(nKey);
-					LinkedList<T> newList = new LinkedList<T>(next);
-					newList.add(nKey);
-					paths.add(newList);
-
-					if (nKey.equals(endLabel)) {
-						if (bestSize == -1) {
-							bestSize = newList.size();
-							best = newList;
-						} else if (newList.size() < bestSize) {
-							bestSize = newList.size();
-							best = newList;
-						}
-					}
-				}
-			}
-		}
-		if (best.isEmpty()) {
-			return null;
-		}
-		return best;
+	/**
+	 * As approximateDiameter(int), starting each 4-sweep from a vertex of the
+	 * component chosen at random.
+	 *
+	 * @param maxBfsRuns the most breadth-first searches to run, at least 2
+	 * @param random     the source of starting vertices
+	 * @return the endpoints and path found; its length is a lower bound on the
+	 *         diameter
+	 */
+	public DiameterResult<T> approximateDiameter(int maxBfsRuns, Random random) {
+		return new DiameterFinder<T>(this).sweep(maxBfsRuns, random);
 	}
 
-	public List<T> slPath() {
-		List<T> longest = new LinkedList<T>();
-		Set<T> keys = keySet();
-		LinkedList<T> keysAsList = new LinkedList<T>(keys);
+	/**
+	 * Returns the out-eccentricity of a vertex: the greatest distance from it to
+	 * any vertex it can reach. Uses a direction-optimizing BFS; see
+	 * DirectionOptimizingBfs.
+	 *
+	 * @param key
+	 * @return the eccentricity of key, 0 if it reaches no other vertex
+	 * @throws NoSuchElementException if the key is not found in the graph
+	 */
+	public int eccentricity(T key) throws NoSuchElementException {
+		int id = requireId(key);
+		int[] distance = new int[size()];
+		return distance[new DirectionOptimizingBfs(this).search(id, true, distance, null)];
+	}
 
-		int outDeg = 0;
-		T highestOutDeg = null;
+	/**
+	 * Computes the distance from one vertex to every vertex with a
+	 * direction-optimizing BFS.
+	 *
+	 * @param source
+	 * @return an array whose element v is the length of a shortest path from
+	 *         source to the vertex with id v, or -1 if there is none
+	 * @throws NoSuchElementException if the id is not in the graph
+	 */
+	public int[] distancesById(int source) throws NoSuchElementException {
+		int[] distance = new int[size()];
+		new DirectionOptimizingBfs(this).search(checkId(source), true, distance, null);
+		return distance;
+	}
 
-		for (T key : keys) {
-			if (outDegree(key) > outDeg) {
-				highestOutDeg = key;
-			}
+	/**
+	 * Computes the distances from many vertices at once, sharing the work of
+	 * up to 64 searches in each pass over the graph; see MultiSourceBfs. This
+	 * is much cheaper than calling distancesById once per source.
+	 *
+	 * @param sources ids to search from
+	 * @return one row per source, as returned by distancesById
+	 * @throws NoSuchElementException if any id is not in the graph
+	 */
+	public int[][] distancesById(int[] sources) throws NoSuchElementException {
+		for (int source : sources) {
+			checkId(source);
 		}
+		return new MultiSourceBfs(this).distances(sources);
+	}
 
-				
-		int n = 25;
-		Thread[] threads = new Thread[n];
-		for (int i = 0; i < n; i++) {
-			LinkedList<T> sublist = new LinkedList<T>(keysAsList.subList(i * (size() / n), (i + 1) * (size() / n)));
-			RunThread thread = new RunThread(sublist, highestOutDeg);
-			threads[i] = thread;
-			thread.start();
-		}
-		
-		for (int i = 0; i < n; i++) {
-			System.out.println("trying to join threads");
-			try {
-				threads[i].join(10000000);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
+	/**
+	 * Computes the out-eccentricity of many vertices at once, in the same way as
+	 * distancesById(int[]), without keeping the distances.
+	 *
+	 * @param sources ids of the vertices
+	 * @return the eccentricity of each, as returned by eccentricity
+	 * @throws NoSuchElementException if any id is not in the graph
+	 */
+	public int[] eccentricitiesById(int[] sources) throws NoSuchElementException {
+		for (int source : sources) {
+			checkId(source);
 		}
-		return longest;
+		return new MultiSourceBfs(this).eccentricities(sources);
 	}
 
-	class RunThread extends Thread {
-		LinkedList<T> keys;
-		List<T> longest = new LinkedList<T>();
-		T from;
-		public RunThread(LinkedList<T> keys, T from) {
-			this.keys = keys;
-			this.from = from;
+	/**
+	 * Computes the same distances as distancesById, spreading every level of the
+	 * search over the given number of threads; see ParallelBfs.
+	 *
+	 * @param source
+	 * @param parallelism the number of worker threads to use
+	 * @return the distance from source to every vertex id, -1 where there is no
+	 *         path
+	 * @throws NoSuchElementException if the id is not in the graph
+	 */
+	public int[] parallelDistancesById(int source, int parallelism) throws NoSuchElementException {
+		checkId(source);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return ParallelBfs.distances(this, source, pool);
+		} finally {
+			pool.shutdown();
 		}
+	}
 
-		@Override
-		public void run() {
-			System.out.println("running thread with size: " + keys.size());
-			
-			int t = keys.size();
-			for (int i = 0; i < t; i++) {
-				T k = keys.remove();
-				List<T> path = shortestPath(from, k);
-				if (path == null || path.size() <= 1) {
-					continue;
-				} else {
-					if (path.size() > longest.size()) {
-						longest = path;
-						System.out.println(longest.size() + " from: " + from + " to: " + k);
-					}
-				}
-			}
-			
+	/**
+	 * Builds a pruned landmark labeling of the graph, which answers exact
+	 * distance queries between any two vertices without a search and rebuilds
+	 * shortest paths on demand; see LandmarkIndex. The index does not follow
+	 * later changes to the graph.
+	 *
+	 * @return the index
+	 */
+	public LandmarkIndex<T> landmarkIndex() {
+		return LandmarkIndex.build(this);
+	}
+
+	/**
+	 * Picks k landmarks and stores the distances to and from each of them, so
+	 * that shortest paths can be found by A* search with landmark lower bounds;
+	 * see AltIndex. Takes 2 * k * size() ints, against the much larger labels of
+	 * landmarkIndex. The index does not follow later changes to the graph.
+	 *
+	 * @param k the number of landmarks, at least 1
+	 * @return the index
+	 */
+	public AltIndex<T> altIndex(int k) {
+		return new AltIndex<T>(this, k);
+	}
+
+	/**
+	 * Estimates the neighbourhood function of the graph, and from it the
+	 * distribution of distances, the average path length and the effective
+	 * diameter, without a breadth-first search per vertex; see HyperAnf. Memory
+	 * is 2 * size() * 2^log2Registers bytes.
+	 *
+	 * @param log2Registers the base-2 logarithm of the registers per vertex, in
+	 *                      [4, 16]; 6 gives a relative standard deviation of 13%,
+	 *                      each further step divides it by sqrt(2)
+	 * @param parallelism   the number of worker threads to use
+	 * @return the estimate
+	 */
+	public NeighbourhoodFunction neighbourhoodFunction(int log2Registers, int parallelism) {
+		HyperAnf anf = new HyperAnf(this, log2Registers);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return new NeighbourhoodFunction(anf.run(pool), anf.relativeStandardDeviation());
+		} finally {
+			pool.shutdown();
 		}
 	}
+
+	/**
+	 * Computes the exact diameter of the largest strongly connected component:
+	 * the pair of vertices whose shortest path is longest, and that path. Uses
+	 * eccentricity bounds to avoid a BFS from every vertex; see DiameterFinder.
+	 * 
+	 * @return the endpoints, path and number of BFS runs needed
+	 */
+	public DiameterResult<T> diameter() {
+		return new DiameterFinder<T>(this).find();
+	}
 }
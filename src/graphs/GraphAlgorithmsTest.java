@@ -0,0 +1,456 @@
+package graphs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for the whole-graph algorithms (diameter, component labeling), run on the
+ * example graphs from the milestone tests.
+ */
+public class GraphAlgorithmsTest {
+
+	private Set<String> getExampleVertexData() {
+		String[] toInsert = {"a","b","c","d","e","f"};
+		HashSet<String> items = new HashSet<String>();
+		for (String str : toInsert) {
+			items.add(str);
+		}
+		return items;
+	}
+
+	private Set<Integer> getExample2VertexData() {
+		Integer[] toInsert = {0,1,2,3,4,5,6};
+		HashSet<Integer> items = new HashSet<Integer>();
+		for (Integer i : toInsert) {
+			items.add(i);
+		}
+		return items;
+	}
+
+	private void addExampleEdges(Graph<String> g) {
+		g.addEdge("a", "b");
+		g.addEdge("a", "c");
+		g.addEdge("b", "d");
+		g.addEdge("c", "d");
+		g.addEdge("d", "c");
+		g.addEdge("d", "e");
+		g.addEdge("d", "f");
+		g.addEdge("f", "c");
+	}
+
+	private void addExample2Edges(Graph<Integer> g) {
+		g.addEdge(0, 1);
+		g.addEdge(1, 0);
+		g.addEdge(0, 2);
+		g.addEdge(2, 3);
+		g.addEdge(2, 4);
+		g.addEdge(3, 4);
+		g.addEdge(4, 5);
+		g.addEdge(4, 6);
+		g.addEdge(6, 2);
+	}
+
+	public Graph<String> makeExampleALGraph() {
+		Graph<String> g = new AdjacencyListGraph<String>(getExampleVertexData());
+		addExampleEdges(g);
+		return g;
+	}
+
+	public Graph<Integer> makeExample2ALGraph() {
+		Graph<Integer> g = new AdjacencyListGraph<Integer>(getExample2VertexData());
+		addExample2Edges(g);
+		return g;
+	}
+
+	public Graph<Integer> makeExample2AMGraph() {
+		Graph<Integer> g = new AdjacencyMatrixGraph<Integer>(getExample2VertexData());
+		addExample2Edges(g);
+		return g;
+	}
+
+	/**
+	 * Builds a directed cycle 0 -> 1 -> ... -> n-1 -> 0, whose diameter is n-1.
+	 */
+	private Graph<Integer> makeCycleGraph(int n) {
+		Set<Integer> keys = new HashSet<Integer>();
+		for (int i = 0; i < n; i++) {
+			keys.add(i);
+		}
+		Graph<Integer> g = new AdjacencyListGraph<Integer>(keys);
+		for (int i = 0; i < n; i++) {
+			g.addEdge(i, (i + 1) % n);
+		}
+		return g;
+	}
+
+	/**
+	 * Builds a graph on 0 .. n-1 from m edges between vertices drawn uniformly
+	 * at random; repeated edges are dropped.
+	 */
+	static Graph<Integer> makeRandomGraph(int n, int m, long seed) {
+		Set<Integer> keys = new HashSet<Integer>();
+		for (int i = 0; i < n; i++) {
+			keys.add(i);
+		}
+		Graph<Integer> g = new AdjacencyListGraph<Integer>(keys);
+		Random random = new Random(seed);
+		for (int i = 0; i < m; i++) {
+			g.addEdge(random.nextInt(n), random.nextInt(n));
+		}
+		return g;
+	}
+
+	private <T> boolean isValidPath(Graph<T> g, List<T> path) {
+		boolean result = true;
+		for (int i = 1; i < path.size(); i++) {
+			result &= g.hasEdge(path.get(i - 1), path.get(i));
+		}
+		return result;
+	}
+
+	private void helperTestDiameter(Graph<Integer> g2) {
+		DiameterResult<Integer> result = g2.diameter();
+		assertEquals(3, result.getLength());
+		assertEquals(4, result.getPath().size());
+		assertTrue("Expected: true", new HashSet<Integer>(Arrays.asList(2,3,4,6)).containsAll(result.getPath()));
+		assertTrue("Expected: true", isValidPath(g2, result.getPath()));
+		assertEquals(result.getPath(), g2.slPath());
+		assertTrue("Expected: true", result.getBfsRuns() > 0);
+	}
+
+	@Test
+	public void testALDiameter() {
+		helperTestDiameter(makeExample2ALGraph());
+		DiameterResult<String> result = makeExampleALGraph().diameter();
+		assertEquals(2, result.getLength());
+	}
+
+	@Test
+	public void testAMDiameter() {
+		helperTestDiameter(makeExample2AMGraph());
+	}
+
+	@Test
+	public void testCSRDiameter() {
+		helperTestDiameter(new CsrGraph<Integer>(makeExample2ALGraph()));
+	}
+
+	@Test
+	public void testDiameterOfCycle() {
+		DiameterResult<Integer> result = makeCycleGraph(50).diameter();
+		assertEquals(49, result.getLength());
+		assertEquals(result.getTarget(), Integer.valueOf((result.getSource() + 49) % 50));
+	}
+
+	@Test
+	public void testDiameterOfEmptyGraph() {
+		Graph<Integer> g = new AdjacencyListGraph<Integer>(new HashSet<Integer>());
+		assertEquals(0, g.diameter().getLength());
+		assertTrue("Expected: true", g.slPath().isEmpty());
+	}
+
+	@Test
+	public void testApproximateDiameter() {
+		DiameterResult<Integer> cycle = makeCycleGraph(50).approximateDiameter(2);
+		assertEquals(49, cycle.getLength());
+		assertFalse("Expected: false", cycle.isExact());
+		assertEquals(2, cycle.getBfsRuns());
+
+		Graph<Integer> g = makeRandomGraph(2000, 5000, 53);
+		int diameter = g.diameter().getLength();
+		for (DiameterResult<Integer> result : Arrays.asList(g.approximateDiameter(9),
+				g.approximateDiameter(8, new Random(59)))) {
+			assertTrue("Expected: true", result.getBfsRuns() <= 9);
+			assertTrue("Expected: true", result.getLength() <= diameter);
+			assertTrue("Expected: true", result.getLength() >= diameter - 2);
+			assertEquals(result.getLength() + 1, result.getPath().size());
+			assertTrue("Expected: true", isValidPath(g, result.getPath()));
+			assertEquals(result.getLength(), g.shortestPath(result.getSource(), result.getTarget()).size() - 1);
+		}
+	}
+
+	private void helperTestIdOperations(Graph<String> g) {
+		int c = g.idOf("c");
+		int d = g.idOf("d");
+		int f = g.idOf("f");
+		assertEquals(-1, g.idOf("z"));
+		assertEquals("d", g.keyOf(d));
+		assertTrue("Expected: true", g.hasEdgeById(f, c));
+		assertFalse("Expected: false", g.hasEdgeById(c, f));
+		assertEquals(3, g.inDegreeById(c));
+		assertEquals(3, g.outDegreeById(d));
+		int[] path = g.shortestPathById(f, g.idOf("e"));
+		assertEquals(Arrays.asList("f","c","d","e"), Arrays.asList(g.keyOf(path[0]), g.keyOf(path[1]),
+				g.keyOf(path[2]), g.keyOf(path[3])));
+		int[] component = g.stronglyConnectedComponentById(f);
+		Arrays.sort(component);
+		int[] expected = {c, d, f};
+		Arrays.sort(expected);
+		assertArrayEquals(expected, component);
+		try {
+			g.hasEdgeById(0, g.size());
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testIdOperations() {
+		helperTestIdOperations(makeExampleALGraph());
+		helperTestIdOperations(new CsrGraph<String>(makeExampleALGraph()));
+		Graph<String> am = new AdjacencyMatrixGraph<String>(getExampleVertexData());
+		addExampleEdges(am);
+		helperTestIdOperations(am);
+
+		int c = am.idOf("c");
+		int e = am.idOf("e");
+		assertTrue("Expected: true", am.addEdgeById(e, c));
+		assertFalse("Expected: false", am.addEdgeById(e, c));
+		assertTrue("Expected: true", am.hasEdge("e", "c"));
+		assertTrue("Expected: true", am.stronglyConnectedComponent("e").contains("c"));
+		assertTrue("Expected: true", am.removeEdgeById(e, c));
+		assertFalse("Expected: false", am.hasEdge("e", "c"));
+	}
+
+	@Test
+	public void testSearchDoesNotRetainGraph() {
+		Graph<Integer> g = makeCycleGraph(100);
+		assertEquals(51, g.shortestPath(10, 60).size());
+		assertEquals(51, g.shortestPath(10, 60).size());
+		WeakReference<Graph<Integer>> reference = new WeakReference<Graph<Integer>>(g);
+		g = null;
+		for (int i = 0; i < 50 && reference.get() != null; i++) {
+			System.gc();
+		}
+		assertNull(reference.get());
+		assertEquals(Arrays.asList(1, 2, 0), makeCycleGraph(3).shortestPath(1, 0));
+	}
+
+	private void helperTestForEachNeighbor(Graph<String> g) {
+		List<String> successors = new ArrayList<String>();
+		g.forEachSuccessor("d", successors::add);
+		assertEquals(new HashSet<String>(Arrays.asList("c","e","f")), new HashSet<String>(successors));
+		assertEquals(3, successors.size());
+		Set<String> predecessors = new HashSet<String>();
+		g.forEachPredecessor("c", predecessors::add);
+		assertEquals(new HashSet<String>(Arrays.asList("a","d","f")), predecessors);
+
+		Set<String> ids = new HashSet<String>();
+		g.forEachSuccessorById(g.idOf("a"), id -> ids.add(g.keyOf(id)));
+		assertEquals(new HashSet<String>(Arrays.asList("b","c")), ids);
+		ids.clear();
+		g.forEachPredecessorById(g.idOf("a"), id -> ids.add(g.keyOf(id)));
+		assertTrue("Expected: true", ids.isEmpty());
+
+		IdCursor cursor = g.predecessorCursor();
+		int count = 0;
+		for (cursor.reset(g.idOf("d")); cursor.hasNext(); cursor.next()) {
+			count++;
+		}
+		assertEquals(2, count);
+		try {
+			g.forEachSuccessor("z", successors::add);
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testForEachNeighbor() {
+		helperTestForEachNeighbor(makeExampleALGraph());
+		helperTestForEachNeighbor(new CsrGraph<String>(makeExampleALGraph()));
+		Graph<String> am = new AdjacencyMatrixGraph<String>(getExampleVertexData());
+		addExampleEdges(am);
+		helperTestForEachNeighbor(am);
+	}
+
+	private void helperTestDegreeCounters(Graph<Integer> g) {
+		DegreeDistribution empty = g.outDegreeDistribution();
+		assertEquals(0, empty.getMaxDegree());
+		assertEquals(g.size(), empty.getCount(0));
+		Random random = new Random(7);
+		int n = g.size();
+		for (int i = 0; i < 2000; i++) {
+			int from = random.nextInt(n);
+			int to = random.nextInt(n);
+			if (random.nextInt(3) == 0) {
+				g.removeEdge(from, to);
+			} else {
+				g.addEdge(from, to);
+			}
+			if (i % 100 == 0) {
+				helperCheckDegreeCounters(g);
+			}
+		}
+		helperCheckDegreeCounters(g);
+	}
+
+	private void helperCheckDegreeCounters(Graph<Integer> g) {
+		int edges = 0;
+		for (Integer v : g.keySet()) {
+			assertEquals(g.successorSet(v).size(), g.outDegree(v));
+			assertEquals(g.predecessorSet(v).size(), g.inDegree(v));
+			edges += g.successorSet(v).size();
+		}
+		assertEquals(edges, g.numEdges());
+		for (boolean out : new boolean[] {true, false}) {
+			DegreeDistribution expected = DegreeCounter.scan(g, out);
+			DegreeDistribution actual = out ? g.outDegreeDistribution() : g.inDegreeDistribution();
+			assertArrayEquals(expected.getHistogram(), actual.getHistogram());
+			assertEquals(expected.getMaxDegree(), actual.getMaxDegree());
+			assertEquals((double) edges / g.size(), actual.getMeanDegree(), 1e-9);
+		}
+	}
+
+	@Test
+	public void testDegreeCounters() {
+		Set<Integer> keys = new HashSet<Integer>();
+		for (int i = 0; i < 30; i++) {
+			keys.add(i);
+		}
+		helperTestDegreeCounters(new AdjacencyListGraph<Integer>(keys));
+		helperTestDegreeCounters(new AdjacencyMatrixGraph<Integer>(keys));
+
+		Graph<String> csr = new CsrGraph<String>(makeExampleALGraph());
+		DegreeDistribution out = csr.outDegreeDistribution();
+		assertEquals(3, out.getMaxDegree());
+		assertEquals(8.0 / 6, out.getMeanDegree(), 1e-9);
+		assertArrayEquals(new int[] {1, 3, 1, 1}, out.getHistogram());
+		assertEquals(0, out.getCount(4));
+		assertArrayEquals(new int[] {1, 3, 1, 1}, csr.inDegreeDistribution().getHistogram());
+	}
+
+	@Test
+	public void testColumnIndexMatchesColumnScan() {
+		int n = 150;
+		Set<Integer> keys = new HashSet<Integer>();
+		for (int i = 0; i < n; i++) {
+			keys.add(i);
+		}
+		AdjacencyMatrixGraph<Integer> plain = new AdjacencyMatrixGraph<Integer>(keys);
+		AdjacencyMatrixGraph<Integer> indexed = new AdjacencyMatrixGraph<Integer>(keys, true);
+		assertFalse("Expected: false", plain.hasColumnIndex());
+		assertTrue("Expected: true", indexed.hasColumnIndex());
+		Random random = new Random(13);
+		int[] from = new int[500];
+		int[] to = new int[500];
+		for (int i = 0; i < from.length; i++) {
+			from[i] = random.nextInt(n);
+			to[i] = random.nextInt(n);
+		}
+		plain.addEdgesById(from, to);
+		indexed.addEdgesById(from, to);
+		for (int i = 0; i < 3000; i++) {
+			int v = random.nextInt(n);
+			int w = random.nextInt(n);
+			boolean add = random.nextBoolean();
+			assertEquals(add ? plain.addEdge(v, w) : plain.removeEdge(v, w),
+					add ? indexed.addEdge(v, w) : indexed.removeEdge(v, w));
+		}
+		IdCursor plainCursor = plain.predecessorCursor();
+		IdCursor indexedCursor = indexed.predecessorCursor();
+		for (int v = 0; v < n; v++) {
+			Set<Integer> expected = plain.predecessorSet(v);
+			assertEquals(expected, indexed.predecessorSet(v));
+			Set<Integer> iterated = new HashSet<Integer>();
+			for (Iterator<Integer> it = indexed.predecessorIterator(v); it.hasNext();) {
+				iterated.add(it.next());
+			}
+			assertEquals(expected, iterated);
+			List<Integer> visited = new ArrayList<Integer>();
+			indexed.forEachPredecessorById(indexed.idOf(v), id -> visited.add(indexed.keyOf(id)));
+			assertEquals(expected, new HashSet<Integer>(visited));
+			plainCursor.reset(plain.idOf(v));
+			indexedCursor.reset(indexed.idOf(v));
+			while (plainCursor.hasNext()) {
+				assertTrue("Expected: true", indexedCursor.hasNext());
+				assertEquals(plainCursor.next(), indexedCursor.next());
+			}
+			assertFalse("Expected: false", indexedCursor.hasNext());
+		}
+		assertEquals(plain.components().componentCount(), indexed.components().componentCount());
+	}
+
+	@Test
+	public void testComponentLabeling() {
+		Graph<Integer> g2 = makeExample2ALGraph();
+		SccDecomposition<Integer> components = g2.components();
+		assertEquals(3, components.componentCount());
+		assertEquals(components.componentOf(2), components.componentOf(6));
+		assertTrue("Expected: true", components.componentOf(0) != components.componentOf(2));
+		assertEquals(2, g2.componentSize(1));
+		assertEquals(4, g2.componentSize(3));
+		assertEquals(new HashSet<Integer>(Arrays.asList(2,3,4,6)), g2.largestStronglyConnectedComponent());
+		assertTrue("Expected: true", components == g2.components());
+	}
+
+	@Test
+	public void testComponentLabelingFollowsEdgeChanges() {
+		Graph<Integer> g2 = makeExample2AMGraph();
+		assertEquals(new HashSet<Integer>(Arrays.asList(5)), g2.stronglyConnectedComponent(5));
+		g2.addEdge(5, 1);
+		assertEquals(new HashSet<Integer>(Arrays.asList(0,1,2,3,4,5,6)), g2.stronglyConnectedComponent(5));
+		g2.removeEdge(6, 2);
+		assertEquals(new HashSet<Integer>(Arrays.asList(0,1,2,3,4,5)), g2.stronglyConnectedComponent(5));
+		assertEquals(1, g2.componentSize(6));
+	}
+
+	@Test
+	public void testComponentLabelingOfLongCycle() {
+		// deep enough that a recursive Tarjan would overflow the stack
+		Graph<Integer> g = makeCycleGraph(200000);
+		assertEquals(200000, g.componentSize(0));
+		assertEquals(1, g.components().componentCount());
+	}
+
+	@Test
+	public void testParallelDistancesMatchSequential() {
+		// wide enough levels that they are split into tasks
+		int n = 20000;
+		Graph<Integer> g = makeRandomGraph(n, 3 * n, 31);
+		Graph<Integer> csr = new CsrGraph<Integer>(g);
+		for (int source = 0; source < n; source += n / 5) {
+			int[] expected = g.distancesById(source);
+			for (int threads = 1; threads <= 4; threads++) {
+				assertArrayEquals(expected, g.parallelDistancesById(source, threads));
+			}
+			int[] csrExpected = csr.distancesById(csr.idOf(g.keyOf(source)));
+			assertArrayEquals(csrExpected, csr.parallelDistancesById(csr.idOf(g.keyOf(source)), 3));
+		}
+		assertEquals(0, g.distancesById(5)[5]);
+	}
+
+	@Test
+	public void testParallelComponentsMatchSequential() {
+		// large enough that the forward-backward split runs before falling back
+		// to Tarjan on the pieces
+		int n = 20000;
+		Graph<Integer> g = makeRandomGraph(n, 2 * n, 42);
+		SccDecomposition<Integer> expected = new SccDecomposition<Integer>(g);
+		for (int threads = 1; threads <= 4; threads++) {
+			SccDecomposition<Integer> result = g.parallelComponents(threads);
+			assertEquals(expected.componentCount(), result.componentCount());
+			for (int i = 0; i < n; i++) {
+				assertEquals(expected.componentOf(i), result.componentOf(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,280 @@
+package graphs;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Timing reports for the graph algorithms, mostly run on the Wikipedia
+ * LivingPeople graph. Run main from the same directory as the tests so that the data files
+ * are found.
+ */
+public class GraphBenchmarks {
+
+	private static final int REPETITIONS = 3;
+
+	public static void main(String[] args) throws IOException {
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		adjacencyScalingReport();
+		ingestReport(maxThreads);
+		Graph<String> graph = WikiSurfing.wikiLivingPeopleGraphCSR(true);
+		sccSpeedupReport(graph, maxThreads);
+		bfsSpeedupReport(graph, maxThreads);
+		neighbourhoodReport(graph, maxThreads);
+		diameterReport(graph);
+		landmarkReport(graph);
+		altReport(graph);
+	}
+
+	/**
+	 * Compares the vertices settled and the time taken by landmark-guided A*
+	 * and by plain BFS over the same random queries, for growing numbers of
+	 * landmarks.
+	 */
+	static <T> void altReport(Graph<T> graph) {
+		System.out.println("ALT landmark A*");
+		int queries = 1000;
+		Random random = new Random(2);
+		int[] sources = new int[queries];
+		int[] targets = new int[queries];
+		for (int i = 0; i < queries; i++) {
+			sources[i] = random.nextInt(graph.size());
+			targets[i] = random.nextInt(graph.size());
+		}
+		for (int k = 4; k <= 16; k *= 2) {
+			long start = System.nanoTime();
+			AltIndex<T> index = graph.altIndex(k);
+			long build = System.nanoTime() - start;
+			long aStarSettled = 0, bfsSettled = 0, aStarTime = 0, bfsTime = 0;
+			boolean agrees = true;
+			for (int i = 0; i < queries; i++) {
+				start = System.nanoTime();
+				int[] path = index.shortestPathById(sources[i], targets[i]);
+				aStarTime += System.nanoTime() - start;
+				aStarSettled += index.getLastSettled();
+				start = System.nanoTime();
+				int distance = index.bfsDistanceById(sources[i], targets[i]);
+				bfsTime += System.nanoTime() - start;
+				bfsSettled += index.getLastSettled();
+				agrees &= (path == null ? -1 : path.length - 1) == distance;
+			}
+			System.out.printf("  %2d landmarks, built in %.1f ms: A* settles %.0f, %.3f ms per query;"
+					+ " BFS settles %.0f, %.3f ms per query%s%n", k, build / 1e6, (double) aStarSettled / queries,
+					aStarTime / 1e6 / queries, (double) bfsSettled / queries, bfsTime / 1e6 / queries,
+					agrees ? "" : "  DISTANCES DIFFER");
+		}
+	}
+
+	/**
+	 * Builds a pruned landmark labeling and reports its build time, label sizes
+	 * and the mean latency of random distance queries, checking a few of them
+	 * against a BFS.
+	 */
+	static <T> void landmarkReport(Graph<T> graph) {
+		System.out.println("Pruned landmark labeling");
+		LandmarkIndex<T> index = graph.landmarkIndex();
+		System.out.println("  " + index);
+		int queries = 1000000;
+		int[] sources = new int[queries];
+		int[] targets = new int[queries];
+		Random random = new Random(1);
+		for (int i = 0; i < queries; i++) {
+			sources[i] = random.nextInt(graph.size());
+			targets[i] = random.nextInt(graph.size());
+		}
+		long best = Long.MAX_VALUE;
+		long checksum = 0;
+		for (int r = 0; r < REPETITIONS; r++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < queries; i++) {
+				checksum += index.distanceById(sources[i], targets[i]);
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		boolean agrees = true;
+		for (int i = 0; i < 10; i++) {
+			agrees &= graph.distancesById(sources[i])[targets[i]] == index.distanceById(sources[i], targets[i]);
+		}
+		System.out.printf("  %d queries: %.3f us per query (checksum %d)%s%n", queries, best / 1e3 / queries,
+				checksum, agrees ? "" : "  DISTANCES DIFFER");
+	}
+
+	/**
+	 * Times the exact diameter search against 4-sweep approximations with
+	 * growing budgets of searches.
+	 */
+	static <T> void diameterReport(Graph<T> graph) {
+		System.out.println("Diameter");
+		long start = System.nanoTime();
+		DiameterResult<T> exact = graph.diameter();
+		System.out.printf("  exact: %8.1f ms, %s%n", (System.nanoTime() - start) / 1e6, exact);
+		for (int bfsRuns = 2; bfsRuns <= 16; bfsRuns *= 2) {
+			start = System.nanoTime();
+			DiameterResult<T> approximate = graph.approximateDiameter(bfsRuns);
+			System.out.printf("  %2d BFS runs: %8.1f ms, %s%n", bfsRuns, (System.nanoTime() - start) / 1e6,
+					approximate);
+		}
+	}
+
+	/**
+	 * Estimates the neighbourhood function with HyperANF at maxThreads threads
+	 * and prints it with the distance statistics derived from it.
+	 */
+	static <T> void neighbourhoodReport(Graph<T> graph, int maxThreads) {
+		System.out.println("Neighbourhood function");
+		long start = System.nanoTime();
+		NeighbourhoodFunction function = graph.neighbourhoodFunction(6, maxThreads);
+		System.out.printf("  HyperANF, %d threads: %8.1f ms%n", maxThreads, (System.nanoTime() - start) / 1e6);
+		System.out.println("  " + function.toString().replace(String.format("%n"), String.format("%n  ")));
+	}
+
+	/**
+	 * Times computing the distances from one vertex with the sequential
+	 * direction-optimizing BFS and with the parallel level-synchronous BFS at 1
+	 * to maxThreads threads, checking that every run gives the same distances.
+	 * The source is the vertex of highest out-degree, so that the search reaches
+	 * most of the graph.
+	 */
+	static <T> void bfsSpeedupReport(Graph<T> graph, int maxThreads) {
+		System.out.println("Single-source distances");
+		int source = 0;
+		for (int v = 1; v < graph.size(); v++) {
+			if (graph.outDegreeById(v) > graph.outDegreeById(source)) {
+				source = v;
+			}
+		}
+		int[] expected = null;
+		long sequential = Long.MAX_VALUE;
+		for (int r = 0; r < REPETITIONS; r++) {
+			long start = System.nanoTime();
+			expected = graph.distancesById(source);
+			sequential = Math.min(sequential, System.nanoTime() - start);
+		}
+		System.out.printf("  sequential: %8.1f ms%n", sequential / 1e6);
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			long best = Long.MAX_VALUE;
+			int[] result = null;
+			for (int r = 0; r < REPETITIONS; r++) {
+				long start = System.nanoTime();
+				result = graph.parallelDistancesById(source, threads);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+			System.out.printf("  level-synchronous, %2d threads: %8.1f ms, speedup %.2fx over sequential%s%n",
+					threads, best / 1e6, (double) sequential / best,
+					Arrays.equals(expected, result) ? "" : "  DISTANCES DIFFER");
+		}
+	}
+
+	/**
+	 * Times the sequential Tarjan labeling against the parallel forward-backward
+	 * labeling at 1 to maxThreads threads, checking that every run produces the
+	 * same labeling.
+	 */
+	static <T> void sccSpeedupReport(Graph<T> graph, int maxThreads) {
+		System.out.println("Strongly connected components");
+		SccDecomposition<T> expected = null;
+		long sequential = Long.MAX_VALUE;
+		for (int r = 0; r < REPETITIONS; r++) {
+			long start = System.nanoTime();
+			expected = new SccDecomposition<T>(graph);
+			sequential = Math.min(sequential, System.nanoTime() - start);
+		}
+		System.out.printf("  sequential Tarjan: %8.1f ms, %d components, largest has %d vertices%n",
+				sequential / 1e6, expected.componentCount(), expected.componentSize(expected.largestComponent()));
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			long best = Long.MAX_VALUE;
+			SccDecomposition<T> result = null;
+			for (int r = 0; r < REPETITIONS; r++) {
+				long start = System.nanoTime();
+				result = graph.parallelComponents(threads);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+			boolean same = result.componentCount() == expected.componentCount();
+			for (T key : graph.keySet()) {
+				same &= result.componentOf(key) == expected.componentOf(key);
+			}
+			System.out.printf("  forward-backward, %2d threads: %8.1f ms, speedup %.2fx over Tarjan%s%n", threads,
+					best / 1e6, (double) sequential / best, same ? "" : "  LABELING DIFFERS");
+		}
+	}
+
+	/**
+	 * Times adding and then removing every edge of a star whose hub has the
+	 * given out-degree, on an AdjacencyListGraph, for hubs from below the
+	 * AdjacencySet hash threshold up to celebrity size. The time per edge should
+	 * stay flat as the degree grows.
+	 */
+	static void adjacencyScalingReport() {
+		System.out.println("AdjacencyListGraph edge updates on a hub vertex");
+		for (int degree = 4; degree <= 1 << 16; degree *= 4) {
+			Set<Integer> keys = new HashSet<Integer>();
+			for (int i = 0; i <= degree; i++) {
+				keys.add(i);
+			}
+			int[] order = new int[degree];
+			for (int i = 0; i < degree; i++) {
+				order[i] = i + 1;
+			}
+			Random random = new Random(degree);
+			for (int i = degree - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int swap = order[i];
+				order[i] = order[j];
+				order[j] = swap;
+			}
+			// enough rounds that each size does about a million updates
+			int rounds = Math.max(1, (1 << 20) / degree);
+			long bestAdd = Long.MAX_VALUE;
+			long bestRemove = Long.MAX_VALUE;
+			for (int r = 0; r < REPETITIONS; r++) {
+				Graph<Integer> graph = new AdjacencyListGraph<Integer>(keys);
+				int hub = graph.idOf(0);
+				int[] ids = new int[degree];
+				for (int i = 0; i < degree; i++) {
+					ids[i] = graph.idOf(order[i]);
+				}
+				long add = 0;
+				long remove = 0;
+				for (int round = 0; round < rounds; round++) {
+					long start = System.nanoTime();
+					for (int id : ids) {
+						graph.addEdgeById(hub, id);
+					}
+					long middle = System.nanoTime();
+					for (int id : ids) {
+						graph.removeEdgeById(hub, id);
+					}
+					remove += System.nanoTime() - middle;
+					add += middle - start;
+				}
+				bestAdd = Math.min(bestAdd, add);
+				bestRemove = Math.min(bestRemove, remove);
+			}
+			long updates = (long) rounds * degree;
+			System.out.printf("  degree %6d: add %6.1f ns/edge, remove %6.1f ns/edge%n", degree,
+					(double) bestAdd / updates, (double) bestRemove / updates);
+		}
+	}
+
+	/**
+	 * Times parsing the LivingPeople links file into edge id arrays at 1 to
+	 * maxThreads threads.
+	 */
+	static void ingestReport(int maxThreads) throws IOException {
+		System.out.println("Edge list ingest");
+		int[] indexToId = WikiSurfing.wikiLivingPeopleNames().indexToIdTable();
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			long best = Long.MAX_VALUE;
+			int edges = 0;
+			for (int r = 0; r < REPETITIONS; r++) {
+				long start = System.nanoTime();
+				edges = WikiSurfing.readEdgeIds(indexToId, WikiSurfing.LINKS_FILE_NAME, threads, false)[0].length;
+				best = Math.min(best, System.nanoTime() - start);
+			}
+			System.out.printf("  %2d threads: %8.1f ms, %.1f million edges/s%n", threads, best / 1e6,
+					edges / (best / 1e9) / 1e6);
+		}
+	}
+}
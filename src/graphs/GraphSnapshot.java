@@ -0,0 +1,276 @@
+package graphs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of a graph with String keys, so that a graph parsed once
+ * from text can be loaded again with a few bulk reads. All numbers are
+ * little-endian ints:
+ *
+ * <pre>
+ * magic "GSNP", version, vertex count n, edge count m, name byte count b
+ * name offsets    int[n + 1]   (into the name bytes)
+ * name bytes      byte[b]      (UTF-8, padded with zeros to a multiple of 4)
+ * name order      int[n]       (vertex ids sorted by name bytes; version 2 on)
+ * out offsets     int[n + 1]
+ * out targets     int[m]
+ * in offsets      int[n + 1]
+ * in targets      int[m]
+ * checksum        CRC32 of everything above, as a long
+ * </pre>
+ *
+ * The edge sections are exactly the arrays of a CsrGraph, so loading needs no
+ * sorting or hashing beyond building the key map. write builds the whole file
+ * in one buffer, which limits snapshots to under 2 GB. read copies the file
+ * onto the heap; map leaves every section in the file and looks names up
+ * through the name order instead.
+ */
+public class GraphSnapshot {
+	static final int MAGIC = 0x504e5347; // "GSNP" read as a little-endian int
+	static final int VERSION = 2;
+	static final int HEADER_BYTES = 20;
+
+	/**
+	 * Writes the graph to the given file, replacing it if it exists. The file is
+	 * replaced by a rename, so graphs already mapped from it stay valid.
+	 *
+	 * @param graph
+	 * @param file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(CsrGraph<String> graph, File file) throws IOException {
+		int n = graph.size();
+		int m = graph.numEdges();
+		byte[][] names = new byte[n][];
+		int nameBytes = 0;
+		for (int v = 0; v < n; v++) {
+			names[v] = graph.keyOf(v).getBytes(StandardCharsets.UTF_8);
+			nameBytes += names[v].length;
+		}
+		int paddedNameBytes = (nameBytes + 3) & ~3;
+		Integer[] order = new Integer[n];
+		for (int v = 0; v < n; v++) {
+			order[v] = v;
+		}
+		Arrays.sort(order, (a, b) -> compareBytes(names[a], names[b]));
+		long size = HEADER_BYTES + 4L * (n + 1) + paddedNameBytes + 4L * n + 4L * (2 * (n + 1) + 2 * m) + 8;
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Graph too large for a snapshot");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt(nameBytes);
+		int offset = 0;
+		buffer.putInt(offset);
+		for (int v = 0; v < n; v++) {
+			offset += names[v].length;
+			buffer.putInt(offset);
+		}
+		for (int v = 0; v < n; v++) {
+			buffer.put(names[v]);
+		}
+		buffer.position(buffer.position() + paddedNameBytes - nameBytes);
+		for (int v = 0; v < n; v++) {
+			buffer.putInt(order[v]);
+		}
+		putInts(buffer, graph.outOffsets);
+		putInts(buffer, graph.outTargets);
+		putInts(buffer, graph.inOffsets);
+		putInts(buffer, graph.inTargets);
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.putLong(crc.getValue());
+		buffer.flip();
+
+		replace(file, buffer);
+	}
+
+	/**
+	 * Writes the buffer's remaining bytes to a temporary file beside the given
+	 * one, forces them to disk and then renames the temporary file over it. The
+	 * old file is never truncated, so a process that has it mapped keeps
+	 * reading the old contents, and no reader sees a half-written file.
+	 *
+	 * @param file
+	 * @param buffer
+	 * @throws IOException if the file cannot be written or replaced
+	 */
+	static void replace(File file, ByteBuffer buffer) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+		try {
+			try (RandomAccessFile out = new RandomAccessFile(temporary, "rw")) {
+				FileChannel channel = out.getChannel();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(true);
+			}
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporary.toPath());
+		}
+	}
+
+	/**
+	 * Loads a graph written by write onto the heap, checking its checksum.
+	 *
+	 * @param file
+	 * @return the graph
+	 * @throws IOException if the file cannot be read, is not a snapshot of a
+	 *                     supported version, or fails its checksum
+	 */
+	public static CsrGraph<String> read(File file) throws IOException {
+		ByteBuffer buffer;
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			FileChannel channel = in.getChannel();
+			if (channel.size() > Integer.MAX_VALUE || channel.size() < HEADER_BYTES + 8) {
+				throw new IOException("Not a graph snapshot: " + file);
+			}
+			buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("Unexpected end of snapshot: " + file);
+				}
+			}
+		}
+		buffer.flip();
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a graph snapshot: " + file);
+		}
+		int version = buffer.getInt();
+		if (version < 1 || version > VERSION) {
+			throw new IOException("Unsupported snapshot version " + version + ": " + file);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.limit() - 8);
+		if (crc.getValue() != buffer.getLong(buffer.limit() - 8)) {
+			throw new IOException("Snapshot checksum mismatch: " + file);
+		}
+
+		int n = buffer.getInt();
+		int m = buffer.getInt();
+		int nameBytes = buffer.getInt();
+		int[] nameOffsets = getInts(buffer, n + 1);
+		List<String> keys = new ArrayList<String>(n);
+		byte[] bytes = buffer.array();
+		int base = buffer.position();
+		for (int v = 0; v < n; v++) {
+			keys.add(new String(bytes, base + nameOffsets[v], nameOffsets[v + 1] - nameOffsets[v],
+					StandardCharsets.UTF_8));
+		}
+		buffer.position(base + ((nameBytes + 3) & ~3));
+		if (version >= 2) {
+			buffer.position(buffer.position() + 4 * n);
+		}
+		int[] outOffsets = getInts(buffer, n + 1);
+		int[] outTargets = getInts(buffer, m);
+		int[] inOffsets = getInts(buffer, n + 1);
+		int[] inTargets = getInts(buffer, m);
+		return new CsrGraph<String>(keys, outOffsets, outTargets, inOffsets, inTargets);
+	}
+
+	/**
+	 * Opens a graph written by write without copying it onto the heap: every
+	 * section is memory-mapped read-only, so opening costs a few system calls
+	 * whatever the size of the graph, and every process that maps the same file
+	 * shares one copy of it in the page cache.
+	 *
+	 * Only the header and the file length are checked; the checksum would mean
+	 * reading every page, so it is left to read.
+	 *
+	 * @param file
+	 * @return the graph
+	 * @throws IOException if the file cannot be read, is not a snapshot of
+	 *                     version 2 or later, or has the wrong length
+	 */
+	public static MappedCsrGraph map(File file) throws IOException {
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			if (size < HEADER_BYTES + 8) {
+				throw new IOException("Not a graph snapshot: " + file);
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a graph snapshot: " + file);
+			}
+			int version = header.getInt();
+			if (version < 2 || version > VERSION) {
+				throw new IOException("Cannot map snapshot version " + version + ": " + file);
+			}
+			int n = header.getInt();
+			int m = header.getInt();
+			int nameBytes = header.getInt();
+			long expected = HEADER_BYTES + 4L * (n + 1) + ((nameBytes + 3L) & ~3L) + 4L * n
+					+ 4L * (2 * (n + 1L) + 2L * m) + 8;
+			if (n < 0 || m < 0 || nameBytes < 0 || size != expected) {
+				throw new IOException("Snapshot has the wrong length: " + file);
+			}
+
+			long position = HEADER_BYTES;
+			IntBuffer nameOffsets = mapInts(channel, position, n + 1);
+			position += 4L * (n + 1);
+			ByteBuffer names = channel.map(FileChannel.MapMode.READ_ONLY, position, nameBytes);
+			position += (nameBytes + 3L) & ~3L;
+			IntBuffer nameOrder = mapInts(channel, position, n);
+			position += 4L * n;
+			IntBuffer outOffsets = mapInts(channel, position, n + 1);
+			position += 4L * (n + 1);
+			IntBuffer outTargets = mapInts(channel, position, m);
+			position += 4L * m;
+			IntBuffer inOffsets = mapInts(channel, position, n + 1);
+			position += 4L * (n + 1);
+			IntBuffer inTargets = mapInts(channel, position, m);
+			return new MappedCsrGraph(nameOffsets, names, nameOrder, outOffsets, outTargets, inOffsets, inTargets);
+		}
+	}
+
+	private static IntBuffer mapInts(FileChannel channel, long position, int count) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count).order(ByteOrder.LITTLE_ENDIAN)
+				.asIntBuffer();
+	}
+
+	/**
+	 * Compares UTF-8 names byte by byte, treating bytes as unsigned, which is
+	 * the order of the name order section.
+	 */
+	static int compareBytes(byte[] a, byte[] b) {
+		int length = Math.min(a.length, b.length);
+		for (int i = 0; i < length; i++) {
+			if (a[i] != b[i]) {
+				return (a[i] & 0xff) - (b[i] & 0xff);
+			}
+		}
+		return a.length - b.length;
+	}
+
+	static void putInts(ByteBuffer buffer, int[] values) {
+		buffer.asIntBuffer().put(values);
+		buffer.position(buffer.position() + 4 * values.length);
+	}
+
+	static int[] getInts(ByteBuffer buffer, int count) {
+		int[] values = new int[count];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + 4 * count);
+		return values;
+	}
+}
@@ -0,0 +1,179 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * Estimates the neighbourhood function of a graph, N(t) = the number of pairs
+ * (x, y) with d(x, y) <= t, with HyperANF (Boldi, Rosa and Vigna, "HyperANF:
+ * Approximating the Neighbourhood Function of Very Large Graphs on a Budget").
+ *
+ * Every vertex v keeps a HyperLogLog counter of the set of vertices it reaches
+ * within t steps. At t = 0 that set is {v}; the set within t + 1 steps is the
+ * union of v's own set with those of its successors, and a union of
+ * HyperLogLog counters is the register-wise maximum. N(t) is estimated as the
+ * sum of the counters' estimates, and iteration stops when no register
+ * changes, at which point t has passed the longest shortest path.
+ *
+ * A counter has 2^log2Registers one-byte registers, giving each estimate a
+ * relative standard deviation of about 1.04 / sqrt(2^log2Registers). Two
+ * generations of counters are kept, so memory is 2 n 2^log2Registers bytes.
+ * Each iteration is spread over a ForkJoinPool in fixed blocks of vertices, so
+ * the result does not depend on the number of threads.
+ */
+final class HyperAnf {
+	/** Vertices per parallel task. */
+	private static final int BLOCK = 1024;
+	/** 2^-k for every possible register value k. */
+	private static final double[] INVERSE_POWERS = new double[66];
+	static {
+		for (int k = 0; k < INVERSE_POWERS.length; k++) {
+			INVERSE_POWERS[k] = Math.scalb(1.0, -k);
+		}
+	}
+
+	private final Graph<?> graph;
+	private final int n;
+	private final int log2m;
+	private final int m;
+	private final double alphaMm;
+	private byte[] current;
+	private byte[] next;
+
+	HyperAnf(Graph<?> graph, int log2Registers) {
+		if (log2Registers < 4 || log2Registers > 16) {
+			throw new IllegalArgumentException("log2Registers must be in [4, 16]");
+		}
+		this.graph = graph;
+		this.n = graph.size();
+		this.log2m = log2Registers;
+		this.m = 1 << log2Registers;
+		if ((long) this.n * this.m > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many registers for a graph of " + this.n + " vertices");
+		}
+		double alpha = this.m == 16 ? 0.673 : this.m == 32 ? 0.697 : this.m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / this.m);
+		this.alphaMm = alpha * this.m * this.m;
+		this.current = new byte[this.n * this.m];
+		this.next = new byte[this.n * this.m];
+	}
+
+	/**
+	 * @return the relative standard deviation of one counter's estimate
+	 */
+	double relativeStandardDeviation() {
+		return 1.04 / Math.sqrt(this.m);
+	}
+
+	private static long mix(long x) {
+		x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+		x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+		return x ^ (x >>> 31);
+	}
+
+	/**
+	 * Runs the iteration to convergence.
+	 *
+	 * @param pool the pool to run the iterations in
+	 * @return N(0), N(1), ... up to the first t at which nothing changed
+	 */
+	double[] run(ForkJoinPool pool) {
+		for (int v = 0; v < this.n; v++) {
+			long hash = mix(v + 0x9e3779b97f4a7c15L);
+			int register = (int) (hash & (this.m - 1));
+			long rest = hash >>> this.log2m;
+			this.current[v * this.m + register] = (byte) (Long.numberOfLeadingZeros(rest) - this.log2m + 1);
+		}
+		List<Double> function = new ArrayList<Double>();
+		double initial = 0;
+		for (int v = 0; v < this.n; v++) {
+			initial += estimate(this.current, v * this.m);
+		}
+		function.add(initial);
+		int blocks = (this.n + BLOCK - 1) / BLOCK;
+		double[] sums = new double[blocks];
+		boolean[] changed = new boolean[blocks];
+		IdCursor[] cursors = new IdCursor[blocks];
+		while (true) {
+			pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, blocks).parallel().forEach(b -> {
+				if (cursors[b] == null) {
+					cursors[b] = this.graph.successorCursor();
+				}
+				changed[b] = step(b * BLOCK, Math.min(this.n, (b + 1) * BLOCK), cursors[b], sums, b);
+			})));
+			boolean any = false;
+			double total = 0;
+			for (int b = 0; b < blocks; b++) {
+				any |= changed[b];
+				total += sums[b];
+			}
+			if (!any) {
+				break;
+			}
+			function.add(total);
+			byte[] swap = this.current;
+			this.current = this.next;
+			this.next = swap;
+		}
+		double[] result = new double[function.size()];
+		for (int t = 0; t < result.length; t++) {
+			result[t] = function.get(t);
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the next counters of vertices [from, to) and stores the sum of
+	 * their estimates in sums[block].
+	 *
+	 * @return whether any of their registers changed
+	 */
+	private boolean step(int from, int to, IdCursor cursor, double[] sums, int block) {
+		byte[] current = this.current;
+		byte[] next = this.next;
+		int m = this.m;
+		boolean changed = false;
+		double sum = 0;
+		for (int v = from; v < to; v++) {
+			int base = v * m;
+			System.arraycopy(current, base, next, base, m);
+			for (cursor.reset(v); cursor.hasNext();) {
+				int other = cursor.next() * m;
+				for (int j = 0; j < m; j++) {
+					if (current[other + j] > next[base + j]) {
+						next[base + j] = current[other + j];
+					}
+				}
+			}
+			for (int j = 0; j < m && !changed; j++) {
+				changed = next[base + j] != current[base + j];
+			}
+			sum += estimate(next, base);
+		}
+		sums[block] = sum;
+		return changed;
+	}
+
+	/**
+	 * The HyperLogLog estimate of the counter at registers[base, base + m),
+	 * with the linear counting correction for small sets.
+	 */
+	private double estimate(byte[] registers, int base) {
+		double sum = 0;
+		int zeros = 0;
+		for (int j = 0; j < this.m; j++) {
+			int value = registers[base + j];
+			sum += INVERSE_POWERS[value];
+			if (value == 0) {
+				zeros++;
+			}
+		}
+		double estimate = this.alphaMm / sum;
+		if (estimate <= 2.5 * this.m && zeros > 0) {
+			estimate = this.m * Math.log((double) this.m / zeros);
+		}
+		return estimate;
+	}
+}
@@ -0,0 +1,88 @@
+package graphs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for HyperAnf and NeighbourhoodFunction.
+ */
+public class HyperAnfTest {
+
+	/**
+	 * The exact neighbourhood function, from a BFS per vertex.
+	 */
+	private long[] exactFunction(Graph<?> g) {
+		int[] sources = new int[g.size()];
+		for (int v = 0; v < sources.length; v++) {
+			sources[v] = v;
+		}
+		long[] atDistance = new long[g.size()];
+		int max = 0;
+		for (int[] row : g.distancesById(sources)) {
+			for (int d : row) {
+				if (d >= 0) {
+					atDistance[d]++;
+					max = Math.max(max, d);
+				}
+			}
+		}
+		long[] function = new long[max + 1];
+		for (int t = 0; t <= max; t++) {
+			function[t] = (t == 0 ? 0 : function[t - 1]) + atDistance[t];
+		}
+		return function;
+	}
+
+	@Test
+	public void testEstimateWithinBounds() {
+		Graph<Integer> g = GraphAlgorithmsTest.makeRandomGraph(1500, 3000, 41);
+		long[] exact = exactFunction(g);
+		NeighbourhoodFunction estimate = g.neighbourhoodFunction(10, 2);
+		assertTrue("Expected: true", estimate.getMaxDistance() <= exact.length - 1);
+		assertTrue("Expected: true", estimate.getMaxDistance() >= exact.length - 3);
+		for (int t = 0; t < exact.length; t++) {
+			assertTrue("N(" + t + ")", estimate.getLowerBound(t) <= exact[t] && exact[t] <= estimate.getUpperBound(t));
+		}
+		assertEquals(exact.length - 1 > 0, estimate.getAveragePathLength() > 0);
+		double weighted = 0;
+		for (int t = 1; t < exact.length; t++) {
+			weighted += t * (exact[t] - exact[t - 1]);
+		}
+		double average = weighted / (exact[exact.length - 1] - exact[0]);
+		assertEquals(average, estimate.getAveragePathLength(), 0.1 * average);
+		double[] histogram = estimate.getDistanceHistogram();
+		assertEquals(g.size(), histogram[0], 0.01 * g.size());
+		assertEquals(estimate.getPairs(estimate.getMaxDistance()), Arrays.stream(histogram).sum(), 1e-6);
+	}
+
+	@Test
+	public void testIndependentOfParallelism() {
+		Graph<Integer> g = GraphAlgorithmsTest.makeRandomGraph(5000, 12000, 43);
+		double[] sequential = g.neighbourhoodFunction(6, 1).getFunction();
+		assertArrayEquals(sequential, g.neighbourhoodFunction(6, 4).getFunction(), 0);
+	}
+
+	@Test
+	public void testPath() {
+		Set<Integer> keys = new HashSet<Integer>(Arrays.asList(0, 1, 2, 3));
+		Graph<Integer> g = new AdjacencyListGraph<Integer>(keys);
+		g.addEdge(0, 1);
+		g.addEdge(1, 2);
+		g.addEdge(2, 3);
+		NeighbourhoodFunction estimate = g.neighbourhoodFunction(8, 1);
+		// with 256 registers, linear counting sizes sets of a few vertices to
+		// within one percent
+		assertEquals(3, estimate.getMaxDistance());
+		assertArrayEquals(new double[] {4, 7, 9, 10}, estimate.getFunction(), 0.1);
+		assertEquals(10.0 / 6, estimate.getAveragePathLength(), 0.05);
+		assertEquals(0, new AdjacencyListGraph<Integer>(new HashSet<Integer>()).neighbourhoodFunction(6, 1)
+				.getAveragePathLength(), 0);
+	}
+}
@@ -0,0 +1,31 @@
+package graphs;
+
+/**
+ * Reusable cursor over the dense ids of the vertices adjacent to one vertex.
+ * A cursor is obtained once from a graph and then pointed at vertex after
+ * vertex with reset, so walking the neighbours of many vertices allocates
+ * nothing. A cursor is only valid while the graph is not modified.
+ *
+ * Cursors come from IntGraph.successorCursor and predecessorCursor, and
+ * internally from every Graph.
+ */
+public interface IdCursor {
+
+	/**
+	 * Positions the cursor before the first neighbour of the given vertex.
+	 *
+	 * @param id
+	 * @return this cursor
+	 */
+	IdCursor reset(int id);
+
+	/**
+	 * @return true if there are more neighbours to visit
+	 */
+	boolean hasNext();
+
+	/**
+	 * @return the id of the next neighbour
+	 */
+	int next();
+}
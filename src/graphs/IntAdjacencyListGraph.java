@@ -0,0 +1,165 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * IntGraph stored as adjacency lists of plain ints: the successors of v are
+ * successors[v][0 .. outDegree[v] - 1] in insertion order, and predecessors
+ * are kept the same way. Lists grow by doubling, so adding an edge costs a
+ * scan of the source's successors for the duplicate check and an amortized
+ * constant-time append.
+ */
+public class IntAdjacencyListGraph extends IntGraph {
+	private static final int[] EMPTY = new int[0];
+
+	int[][] successors;
+	int[][] predecessors;
+	int[] outDegree;
+	int[] inDegree;
+	int numEdges;
+
+	/**
+	 * Creates a graph with vertices 0 .. size - 1 and no edges.
+	 *
+	 * @param size
+	 */
+	IntAdjacencyListGraph(int size) {
+		this.successors = new int[size][];
+		this.predecessors = new int[size][];
+		Arrays.fill(this.successors, EMPTY);
+		Arrays.fill(this.predecessors, EMPTY);
+		this.outDegree = new int[size];
+		this.inDegree = new int[size];
+	}
+
+	@Override
+	public int size() {
+		return this.successors.length;
+	}
+
+	@Override
+	public int numEdges() {
+		return this.numEdges;
+	}
+
+	@Override
+	public boolean addEdge(int from, int to) {
+		requireVertex(from);
+		requireVertex(to);
+		if (indexOf(this.successors[from], this.outDegree[from], to) != -1) {
+			return false;
+		}
+		this.successors[from] = append(this.successors[from], this.outDegree[from]++, to);
+		this.predecessors[to] = append(this.predecessors[to], this.inDegree[to]++, from);
+		this.numEdges++;
+		edgesChanged();
+		return true;
+	}
+
+	@Override
+	public boolean hasEdge(int from, int to) {
+		requireVertex(from);
+		requireVertex(to);
+		return indexOf(this.successors[from], this.outDegree[from], to) != -1;
+	}
+
+	@Override
+	public boolean removeEdge(int from, int to) {
+		requireVertex(from);
+		requireVertex(to);
+		if (!remove(this.successors[from], this.outDegree[from], to)) {
+			return false;
+		}
+		this.outDegree[from]--;
+		remove(this.predecessors[to], this.inDegree[to]--, from);
+		this.numEdges--;
+		edgesChanged();
+		return true;
+	}
+
+	private static int indexOf(int[] list, int length, int value) {
+		for (int i = 0; i < length; i++) {
+			if (list[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int[] append(int[] list, int length, int value) {
+		if (length == list.length) {
+			list = Arrays.copyOf(list, Math.max(4, 2 * length));
+		}
+		list[length] = value;
+		return list;
+	}
+
+	/**
+	 * Removes value from list[0 .. length - 1], keeping the order of the rest.
+	 */
+	private static boolean remove(int[] list, int length, int value) {
+		int i = indexOf(list, length, value);
+		if (i == -1) {
+			return false;
+		}
+		System.arraycopy(list, i + 1, list, i, length - i - 1);
+		return true;
+	}
+
+	@Override
+	public int outDegree(int v) {
+		return this.outDegree[requireVertex(v)];
+	}
+
+	@Override
+	public int inDegree(int v) {
+		return this.inDegree[requireVertex(v)];
+	}
+
+	@Override
+	public IdCursor successorCursor() {
+		return new ListCursor(true);
+	}
+
+	@Override
+	public IdCursor predecessorCursor() {
+		return new ListCursor(false);
+	}
+
+	/**
+	 * Reads the lists afresh on every reset, since they are replaced as they
+	 * grow.
+	 */
+	class ListCursor implements IdCursor {
+		boolean successors;
+		int[] list;
+		int position, end;
+
+		ListCursor(boolean successors) {
+			this.successors = successors;
+		}
+
+		@Override
+		public IdCursor reset(int id) {
+			if (this.successors) {
+				this.list = IntAdjacencyListGraph.this.successors[id];
+				this.end = outDegree[id];
+			} else {
+				this.list = predecessors[id];
+				this.end = inDegree[id];
+			}
+			this.position = 0;
+			return this;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.position < this.end;
+		}
+
+		@Override
+		public int next() {
+			return this.list[this.position++];
+		}
+	}
+}
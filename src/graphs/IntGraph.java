@@ -0,0 +1,183 @@
+package graphs;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Abstract class for graphs whose vertices are the ints 0 .. size() - 1. It
+ * offers the operations of Graph on plain ints, so nothing is boxed or hashed:
+ * neighbours are walked with an IdCursor, and the traversal algorithms return
+ * int arrays.
+ *
+ * Code written against Graph<Integer> can use asGraph(), a view of the same
+ * graph whose keys are the vertex ints.
+ */
+public abstract class IntGraph {
+	private IntGraphAdapter graph;
+
+	/**
+	 * Returns the number of vertices in the graph.
+	 *
+	 * @return
+	 */
+	public abstract int size();
+
+	/**
+	 * Returns the number of edges in the graph.
+	 *
+	 * @return
+	 */
+	public abstract int numEdges();
+
+	/**
+	 * Adds a directed edge from vertex "from" to vertex "to".
+	 *
+	 * @param from
+	 * @param to
+	 * @return true if the add is successful, false if the edge is already in the
+	 *         graph.
+	 * @throws NoSuchElementException if either vertex is not in the graph
+	 */
+	public abstract boolean addEdge(int from, int to) throws NoSuchElementException;
+
+	/**
+	 * Determines whether an edge is in the graph.
+	 *
+	 * @param from
+	 * @param to
+	 * @return true if the directed edge (from, to) is in the graph, otherwise
+	 *         false.
+	 * @throws NoSuchElementException if either vertex is not in the graph
+	 */
+	public abstract boolean hasEdge(int from, int to) throws NoSuchElementException;
+
+	/**
+	 * Removes an edge from the graph.
+	 *
+	 * @param from
+	 * @param to
+	 * @return true if the remove is successful, false if the edge is not in the
+	 *         graph.
+	 * @throws NoSuchElementException if either vertex is not in the graph
+	 */
+	public abstract boolean removeEdge(int from, int to) throws NoSuchElementException;
+
+	/**
+	 * @param v
+	 * @return the number of successors of v
+	 * @throws NoSuchElementException if the vertex is not in the graph
+	 */
+	public abstract int outDegree(int v) throws NoSuchElementException;
+
+	/**
+	 * @param v
+	 * @return the number of predecessors of v
+	 * @throws NoSuchElementException if the vertex is not in the graph
+	 */
+	public abstract int inDegree(int v) throws NoSuchElementException;
+
+	/**
+	 * @return a new cursor over the successors of a vertex, to be pointed at
+	 *         vertices with reset
+	 */
+	public abstract IdCursor successorCursor();
+
+	/**
+	 * @return a new cursor over the predecessors of a vertex, to be pointed at
+	 *         vertices with reset
+	 */
+	public abstract IdCursor predecessorCursor();
+
+	/**
+	 * @param v
+	 * @return a new cursor over the successors of v
+	 * @throws NoSuchElementException if the vertex is not in the graph
+	 */
+	public IdCursor successors(int v) throws NoSuchElementException {
+		return successorCursor().reset(requireVertex(v));
+	}
+
+	/**
+	 * @param v
+	 * @return a new cursor over the predecessors of v
+	 * @throws NoSuchElementException if the vertex is not in the graph
+	 */
+	public IdCursor predecessors(int v) throws NoSuchElementException {
+		return predecessorCursor().reset(requireVertex(v));
+	}
+
+	/**
+	 * @param v
+	 * @return true if v is a vertex of the graph
+	 */
+	public boolean hasVertex(int v) {
+		return v >= 0 && v < size();
+	}
+
+	int requireVertex(int v) {
+		if (v < 0 || v >= size()) {
+			throw new NoSuchElementException();
+		}
+		return v;
+	}
+
+	/**
+	 * Finds a shortest path with the same bidirectional breadth-first search as
+	 * Graph.shortestPath.
+	 *
+	 * @param start
+	 * @param end
+	 * @return the vertices along a shortest path from start to end, or null if
+	 *         end is unreachable
+	 * @throws NoSuchElementException if either vertex is not in the graph
+	 */
+	public int[] shortestPath(int start, int end) throws NoSuchElementException {
+		return BfsEngine.forCurrentThread().shortestPathIds(asGraph(), requireVertex(start), requireVertex(end));
+	}
+
+	/**
+	 * @return the component labeling of the current graph, cached until an edge
+	 *         is added or removed
+	 */
+	public SccDecomposition<Integer> components() {
+		return asGraph().components();
+	}
+
+	/**
+	 * @param v
+	 * @return the id of the strongly connected component containing v
+	 * @throws NoSuchElementException if the vertex is not in the graph
+	 */
+	public int componentOf(int v) throws NoSuchElementException {
+		return components().componentOfId(requireVertex(v));
+	}
+
+	/**
+	 * @param v
+	 * @return the vertices of the strongly connected component containing v
+	 * @throws NoSuchElementException if the vertex is not in the graph
+	 */
+	public int[] stronglyConnectedComponent(int v) throws NoSuchElementException {
+		SccDecomposition<Integer> components = components();
+		return components.memberIds(components.componentOfId(requireVertex(v)));
+	}
+
+	/**
+	 * @return a Graph view of this graph whose keys are the vertex ints; changes
+	 *         through either are seen by both
+	 */
+	public Graph<Integer> asGraph() {
+		if (this.graph == null) {
+			this.graph = new IntGraphAdapter(this);
+		}
+		return this.graph;
+	}
+
+	/**
+	 * Must be called by subclasses whenever an edge is added or removed.
+	 */
+	void edgesChanged() {
+		if (this.graph != null) {
+			this.graph.edgesChanged();
+		}
+	}
+}
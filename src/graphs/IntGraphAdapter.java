@@ -0,0 +1,190 @@
+package graphs;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The Graph<Integer> view of an IntGraph returned by IntGraph.asGraph. A
+ * vertex's key is its int, which is also its id, so the inherited algorithms
+ * run on the IntGraph's own cursors without any lookups; keys are only boxed
+ * where this class hands them out.
+ */
+final class IntGraphAdapter extends Graph<Integer> {
+	private final IntGraph graph;
+
+	IntGraphAdapter(IntGraph graph) {
+		this.graph = graph;
+	}
+
+	@Override
+	public int size() {
+		return this.graph.size();
+	}
+
+	@Override
+	public int numEdges() {
+		return this.graph.numEdges();
+	}
+
+	@Override
+	public boolean addEdge(Integer from, Integer to) {
+		return this.graph.addEdge(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean addEdgeById(int from, int to) {
+		return this.graph.addEdge(from, to);
+	}
+
+	@Override
+	public boolean hasVertex(Integer key) {
+		return key != null && this.graph.hasVertex(key);
+	}
+
+	@Override
+	public boolean hasEdge(Integer from, Integer to) throws NoSuchElementException {
+		return this.graph.hasEdge(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean hasEdgeById(int from, int to) throws NoSuchElementException {
+		return this.graph.hasEdge(from, to);
+	}
+
+	@Override
+	public boolean removeEdge(Integer from, Integer to) throws NoSuchElementException {
+		return this.graph.removeEdge(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean removeEdgeById(int from, int to) throws NoSuchElementException {
+		return this.graph.removeEdge(from, to);
+	}
+
+	@Override
+	public int outDegree(Integer key) throws NoSuchElementException {
+		return this.graph.outDegree(requireId(key));
+	}
+
+	@Override
+	public int outDegreeById(int id) throws NoSuchElementException {
+		return this.graph.outDegree(id);
+	}
+
+	@Override
+	public int inDegree(Integer key) throws NoSuchElementException {
+		return this.graph.inDegree(requireId(key));
+	}
+
+	@Override
+	public int inDegreeById(int id) throws NoSuchElementException {
+		return this.graph.inDegree(id);
+	}
+
+	@Override
+	public Set<Integer> keySet() {
+		return new AbstractSet<Integer>() {
+			@Override
+			public int size() {
+				return IntGraphAdapter.this.graph.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof Integer && IntGraphAdapter.this.graph.hasVertex((Integer) o);
+			}
+
+			@Override
+			public Iterator<Integer> iterator() {
+				return new Iterator<Integer>() {
+					int next = 0;
+
+					@Override
+					public boolean hasNext() {
+						return this.next < IntGraphAdapter.this.graph.size();
+					}
+
+					@Override
+					public Integer next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						return this.next++;
+					}
+				};
+			}
+		};
+	}
+
+	@Override
+	public Set<Integer> successorSet(Integer key) throws NoSuchElementException {
+		return cursorToSet(this.graph.successors(requireId(key)));
+	}
+
+	@Override
+	public Set<Integer> predecessorSet(Integer key) throws NoSuchElementException {
+		return cursorToSet(this.graph.predecessors(requireId(key)));
+	}
+
+	private static Set<Integer> cursorToSet(IdCursor cursor) {
+		Set<Integer> set = new HashSet<Integer>();
+		while (cursor.hasNext()) {
+			set.add(cursor.next());
+		}
+		return set;
+	}
+
+	@Override
+	public Iterator<Integer> successorIterator(Integer key) throws NoSuchElementException {
+		return new CursorIterator(this.graph.successors(requireId(key)));
+	}
+
+	@Override
+	public Iterator<Integer> predecessorIterator(Integer key) throws NoSuchElementException {
+		return new CursorIterator(this.graph.predecessors(requireId(key)));
+	}
+
+	static class CursorIterator implements Iterator<Integer> {
+		IdCursor cursor;
+
+		CursorIterator(IdCursor cursor) {
+			this.cursor = cursor;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.cursor.hasNext();
+		}
+
+		@Override
+		public Integer next() {
+			if (!this.cursor.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return this.cursor.next();
+		}
+	}
+
+	@Override
+	public int idOf(Integer key) {
+		return key != null && this.graph.hasVertex(key) ? key : -1;
+	}
+
+	@Override
+	public Integer keyOf(int id) {
+		return checkId(id);
+	}
+
+	@Override
+	public IdCursor successorCursor() {
+		return this.graph.successorCursor();
+	}
+
+	@Override
+	public IdCursor predecessorCursor() {
+		return this.graph.predecessorCursor();
+	}
+}
@@ -0,0 +1,101 @@
+package graphs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Test cases for IntGraph and its Graph<Integer> view, using the second
+ * example graph from the milestone tests.
+ */
+public class IntGraphTest {
+
+	private IntGraph makeExample2IntGraph() {
+		IntGraph g = new IntAdjacencyListGraph(7);
+		g.addEdge(0, 1);
+		g.addEdge(1, 0);
+		g.addEdge(0, 2);
+		g.addEdge(2, 3);
+		g.addEdge(2, 4);
+		g.addEdge(3, 4);
+		g.addEdge(4, 5);
+		g.addEdge(4, 6);
+		g.addEdge(6, 2);
+		return g;
+	}
+
+	@Test
+	public void testIntOperations() {
+		IntGraph g = makeExample2IntGraph();
+		assertEquals(7, g.size());
+		assertEquals(9, g.numEdges());
+		assertFalse("Expected: false", g.addEdge(2, 4));
+		assertTrue("Expected: true", g.hasEdge(6, 2));
+		assertFalse("Expected: false", g.hasEdge(2, 6));
+		assertEquals(2, g.outDegree(4));
+		assertEquals(2, g.inDegree(2));
+
+		IdCursor cursor = g.successors(4);
+		assertTrue("Expected: true", cursor.hasNext());
+		assertEquals(5, cursor.next());
+		assertEquals(6, cursor.next());
+		assertFalse("Expected: false", cursor.hasNext());
+
+		assertTrue("Expected: true", g.removeEdge(2, 3));
+		assertFalse("Expected: false", g.removeEdge(2, 3));
+		assertEquals(8, g.numEdges());
+		assertEquals(0, g.inDegree(3));
+		assertFalse("Expected: false", g.predecessors(3).hasNext());
+		try {
+			g.addEdge(0, 7);
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testIntAlgorithms() {
+		IntGraph g = makeExample2IntGraph();
+		assertArrayEquals(new int[] {1, 0, 2, 4, 5}, g.shortestPath(1, 5));
+		assertArrayEquals(new int[] {3}, g.shortestPath(3, 3));
+		assertEquals(null, g.shortestPath(2, 0));
+		int[] component = g.stronglyConnectedComponent(2);
+		Arrays.sort(component);
+		assertArrayEquals(new int[] {2, 3, 4, 6}, component);
+		assertEquals(g.componentOf(6), g.componentOf(3));
+		assertFalse("Expected: false", g.componentOf(0) == g.componentOf(2));
+
+		g.addEdge(6, 0);
+		assertEquals(g.componentOf(0), g.componentOf(2));
+		assertArrayEquals(new int[] {2, 4, 6, 0}, g.shortestPath(2, 0));
+	}
+
+	@Test
+	public void testGraphView() {
+		IntGraph ints = makeExample2IntGraph();
+		Graph<Integer> g = ints.asGraph();
+		assertEquals(new HashSet<Integer>(Arrays.asList(0, 1, 2, 3, 4, 5, 6)), g.keySet());
+		assertEquals(new HashSet<Integer>(Arrays.asList(1, 2)), g.successorSet(0));
+		assertEquals(Arrays.asList(1, 0, 2, 4, 5), g.shortestPath(1, 5));
+		assertEquals(new HashSet<Integer>(Arrays.asList(2, 3, 4, 6)), g.stronglyConnectedComponent(2));
+		assertTrue("Expected: true", g.addEdge(5, 4));
+		assertTrue("Expected: true", ints.hasEdge(5, 4));
+		assertEquals(new HashSet<Integer>(Arrays.asList(2, 3, 4, 5, 6)), g.stronglyConnectedComponent(2));
+		assertFalse("Expected: false", g.hasVertex(7));
+		try {
+			g.successorIterator(-1);
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+}
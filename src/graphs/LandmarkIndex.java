@@ -0,0 +1,434 @@
+package graphs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * Exact distance oracle built by pruned landmark labeling (Akiba, Iwata and
+ * Yoshida, "Fast Exact Shortest-Path Distance Queries on Large Networks by
+ * Pruned Landmark Labeling"). Every vertex v gets an out-label, pairs (h,
+ * d(v, h)), and an in-label, pairs (h, d(h, v)), over a set of hubs h, such
+ * that for every s and t joined by a path some hub on a shortest path from s to
+ * t is in both the out-label of s and the in-label of t. A distance query is
+ * then a merge of two short sorted lists.
+ *
+ * Hubs are taken in order of decreasing degree. The hub of rank k runs a
+ * forward and a backward BFS, entering itself in the in-labels of the vertices
+ * it reaches and the out-labels of those that reach it, but stops at any
+ * vertex whose distance the labels of the earlier hubs already give. On a
+ * graph with a well-connected core the early hubs cover most shortest paths,
+ * so later searches are cut short and labels stay small.
+ *
+ * Labels are stored as in CSR form, the entries of vertex v in positions
+ * offsets[v] .. offsets[v + 1] - 1 of the hub and distance arrays, sorted by
+ * hub rank. The index describes the graph as it was when built, and is
+ * written and read in the same style as a GraphSnapshot:
+ *
+ * <pre>
+ * magic "GPLL", version, vertex count n, edge count m,
+ * out entry count, in entry count
+ * out offsets     int[n + 1]
+ * out hubs        int[out entries]
+ * out distances   int[out entries]
+ * in offsets      int[n + 1]
+ * in hubs         int[in entries]
+ * in distances    int[in entries]
+ * checksum        CRC32 of everything above, as a long
+ * </pre>
+ *
+ * @param <T>
+ */
+public class LandmarkIndex<T> {
+	static final int MAGIC = 0x4c4c5047; // "GPLL" read as a little-endian int
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 24;
+
+	private final Graph<T> graph;
+	private final int[] outOffsets, outHubs, outDistances;
+	private final int[] inOffsets, inHubs, inDistances;
+	private final long buildNanos;
+
+	private LandmarkIndex(Graph<T> graph, int[] outOffsets, int[] outHubs, int[] outDistances, int[] inOffsets,
+			int[] inHubs, int[] inDistances, long buildNanos) {
+		this.graph = graph;
+		this.outOffsets = outOffsets;
+		this.outHubs = outHubs;
+		this.outDistances = outDistances;
+		this.inOffsets = inOffsets;
+		this.inHubs = inHubs;
+		this.inDistances = inDistances;
+		this.buildNanos = buildNanos;
+	}
+
+	/**
+	 * Builds the labels of the given graph.
+	 *
+	 * @param graph
+	 * @return the index
+	 */
+	static <T> LandmarkIndex<T> build(Graph<T> graph) {
+		long start = System.nanoTime();
+		Builder builder = new Builder(graph);
+		builder.run();
+		int n = graph.size();
+		int[] outOffsets = new int[n + 1];
+		int[] inOffsets = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			outOffsets[v + 1] = outOffsets[v] + builder.outCounts[v];
+			inOffsets[v + 1] = inOffsets[v] + builder.inCounts[v];
+		}
+		int[] outHubs = new int[outOffsets[n]];
+		int[] outDistances = new int[outOffsets[n]];
+		int[] inHubs = new int[inOffsets[n]];
+		int[] inDistances = new int[inOffsets[n]];
+		for (int v = 0; v < n; v++) {
+			flatten(builder.outLabels[v], builder.outCounts[v], outHubs, outDistances, outOffsets[v]);
+			flatten(builder.inLabels[v], builder.inCounts[v], inHubs, inDistances, inOffsets[v]);
+		}
+		return new LandmarkIndex<T>(graph, outOffsets, outHubs, outDistances, inOffsets, inHubs, inDistances,
+				System.nanoTime() - start);
+	}
+
+	private static void flatten(long[] label, int count, int[] hubs, int[] distances, int offset) {
+		for (int i = 0; i < count; i++) {
+			hubs[offset + i] = (int) (label[i] >>> 32);
+			distances[offset + i] = (int) label[i];
+		}
+	}
+
+	/**
+	 * Runs the pruned searches, keeping each label as a growing array of longs
+	 * with the hub rank in the high half and the distance in the low half.
+	 */
+	private static class Builder {
+		final Graph<?> graph;
+		final int n;
+		final long[][] outLabels, inLabels;
+		final int[] outCounts, inCounts;
+		/** The distance to or from the current hub, by hub rank; -1 if unknown. */
+		final int[] hubDistance;
+		final int[] distance;
+		final int[] queue;
+
+		Builder(Graph<?> graph) {
+			this.graph = graph;
+			this.n = graph.size();
+			this.outLabels = new long[this.n][];
+			this.inLabels = new long[this.n][];
+			this.outCounts = new int[this.n];
+			this.inCounts = new int[this.n];
+			this.hubDistance = new int[this.n];
+			this.distance = new int[this.n];
+			this.queue = new int[this.n];
+			Arrays.fill(this.hubDistance, -1);
+			Arrays.fill(this.distance, -1);
+		}
+
+		void run() {
+			int[] order = Graph.idsByDegree(this.graph);
+			IdCursor successors = this.graph.successorCursor();
+			IdCursor predecessors = this.graph.predecessorCursor();
+			for (int rank = 0; rank < this.n; rank++) {
+				int hub = order[rank];
+				search(rank, hub, successors, this.outLabels, this.outCounts, this.inLabels, this.inCounts);
+				search(rank, hub, predecessors, this.inLabels, this.inCounts, this.outLabels, this.outCounts);
+			}
+		}
+
+		/**
+		 * A pruned BFS from the hub along the given cursor. Forward, the hub's
+		 * out-label is compared with the in-label of each vertex reached, and the
+		 * hub is added to that in-label where it improves on it; backward, the
+		 * roles of the labels swap.
+		 */
+		private void search(int rank, int hub, IdCursor cursor, long[][] ownLabels, int[] ownCounts,
+				long[][] reachedLabels, int[] reachedCounts) {
+			long[] own = ownLabels[hub];
+			for (int i = 0; i < ownCounts[hub]; i++) {
+				this.hubDistance[(int) (own[i] >>> 32)] = (int) own[i];
+			}
+			int head = 0, tail = 0;
+			this.queue[tail++] = hub;
+			this.distance[hub] = 0;
+			while (head < tail) {
+				int u = this.queue[head++];
+				int d = this.distance[u];
+				if (covered(reachedLabels[u], reachedCounts[u], d)) {
+					continue;
+				}
+				reachedLabels[u] = append(reachedLabels[u], reachedCounts[u]++, ((long) rank << 32) | d);
+				for (cursor.reset(u); cursor.hasNext();) {
+					int w = cursor.next();
+					if (this.distance[w] == -1) {
+						this.distance[w] = d + 1;
+						this.queue[tail++] = w;
+					}
+				}
+			}
+			for (int i = 0; i < tail; i++) {
+				this.distance[this.queue[i]] = -1;
+			}
+			own = ownLabels[hub];
+			for (int i = 0; i < ownCounts[hub]; i++) {
+				this.hubDistance[(int) (own[i] >>> 32)] = -1;
+			}
+		}
+
+		/**
+		 * @return true if the label, joined with the current hub's distances,
+		 *         gives a distance of at most d
+		 */
+		private boolean covered(long[] label, int count, int d) {
+			for (int i = 0; i < count; i++) {
+				int through = this.hubDistance[(int) (label[i] >>> 32)];
+				if (through != -1 && through + (int) label[i] <= d) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static long[] append(long[] label, int count, long entry) {
+			if (label == null) {
+				label = new long[4];
+			} else if (count == label.length) {
+				label = Arrays.copyOf(label, 2 * count);
+			}
+			label[count] = entry;
+			return label;
+		}
+	}
+
+	/**
+	 * @param source
+	 * @param target
+	 * @return the number of edges on a shortest path from source to target, or
+	 *         -1 if there is none
+	 * @throws NoSuchElementException if either key is not in the graph
+	 */
+	public int distance(T source, T target) throws NoSuchElementException {
+		return distanceById(this.graph.requireId(source), this.graph.requireId(target));
+	}
+
+	/**
+	 * As distance, on vertex ids.
+	 *
+	 * @param source
+	 * @param target
+	 * @return the distance, or -1 if there is no path
+	 * @throws NoSuchElementException if either id is not in the graph
+	 */
+	public int distanceById(int source, int target) throws NoSuchElementException {
+		return query(this.graph.checkId(source), this.graph.checkId(target));
+	}
+
+	private int query(int source, int target) {
+		int i = this.outOffsets[source];
+		int iEnd = this.outOffsets[source + 1];
+		int j = this.inOffsets[target];
+		int jEnd = this.inOffsets[target + 1];
+		int best = Integer.MAX_VALUE;
+		while (i < iEnd && j < jEnd) {
+			int a = this.outHubs[i];
+			int b = this.inHubs[j];
+			if (a == b) {
+				best = Math.min(best, this.outDistances[i++] + this.inDistances[j++]);
+			} else if (a < b) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return best == Integer.MAX_VALUE ? -1 : best;
+	}
+
+	/**
+	 * Rebuilds a shortest path one edge at a time, each time moving to a
+	 * successor one step closer to the target.
+	 *
+	 * @param source
+	 * @param target
+	 * @return the keys along a shortest path from source to target, or null if
+	 *         there is none
+	 * @throws NoSuchElementException if either key is not in the graph
+	 */
+	public List<T> shortestPath(T source, T target) throws NoSuchElementException {
+		int[] ids = shortestPathById(this.graph.requireId(source), this.graph.requireId(target));
+		if (ids == null) {
+			return null;
+		}
+		List<T> path = new ArrayList<T>(ids.length);
+		for (int id : ids) {
+			path.add(this.graph.keyOf(id));
+		}
+		return path;
+	}
+
+	/**
+	 * As shortestPath, on vertex ids.
+	 *
+	 * @param source
+	 * @param target
+	 * @return the ids along the path, or null if there is none
+	 * @throws NoSuchElementException if either id is not in the graph
+	 */
+	public int[] shortestPathById(int source, int target) throws NoSuchElementException {
+		int d = distanceById(source, target);
+		if (d == -1) {
+			return null;
+		}
+		int[] path = new int[d + 1];
+		path[0] = source;
+		IdCursor cursor = this.graph.successorCursor();
+		for (int i = 1; i <= d; i++) {
+			int v = path[i - 1];
+			for (cursor.reset(v); cursor.hasNext();) {
+				int w = cursor.next();
+				if (query(w, target) == d - i) {
+					path[i] = w;
+					break;
+				}
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * @return the number of label entries, in- and out-labels together
+	 */
+	public long getLabelEntries() {
+		return (long) this.outHubs.length + this.inHubs.length;
+	}
+
+	/**
+	 * @return the mean number of entries per vertex, in- and out-labels
+	 *         together, or 0 if the graph is empty
+	 */
+	public double getMeanLabelSize() {
+		int n = this.outOffsets.length - 1;
+		return n == 0 ? 0 : (double) getLabelEntries() / n;
+	}
+
+	/**
+	 * @return the largest number of entries of any vertex, in- and out-labels
+	 *         together
+	 */
+	public int getMaxLabelSize() {
+		int max = 0;
+		for (int v = 0; v + 1 < this.outOffsets.length; v++) {
+			max = Math.max(max, this.outOffsets[v + 1] - this.outOffsets[v] + this.inOffsets[v + 1]
+					- this.inOffsets[v]);
+		}
+		return max;
+	}
+
+	/**
+	 * @return the time taken to build the labels, in nanoseconds, or 0 if the
+	 *         index was read from a file
+	 */
+	public long getBuildNanos() {
+		return this.buildNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d label entries, %.1f per vertex, at most %d, built in %.1f ms", getLabelEntries(),
+				getMeanLabelSize(), getMaxLabelSize(), this.buildNanos / 1e6);
+	}
+
+	/**
+	 * Writes the labels to the given file, replacing it by a rename if it exists,
+	 * as GraphSnapshot.write does.
+	 *
+	 * @param file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(File file) throws IOException {
+		int n = this.outOffsets.length - 1;
+		long size = HEADER_BYTES + 4L * (2 * (n + 1) + 2 * getLabelEntries()) + 8;
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Index too large to write");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(this.graph.numEdges()).putInt(this.outHubs.length)
+				.putInt(this.inHubs.length);
+		GraphSnapshot.putInts(buffer, this.outOffsets);
+		GraphSnapshot.putInts(buffer, this.outHubs);
+		GraphSnapshot.putInts(buffer, this.outDistances);
+		GraphSnapshot.putInts(buffer, this.inOffsets);
+		GraphSnapshot.putInts(buffer, this.inHubs);
+		GraphSnapshot.putInts(buffer, this.inDistances);
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.putLong(crc.getValue());
+		buffer.flip();
+
+		GraphSnapshot.replace(file, buffer);
+	}
+
+	/**
+	 * Loads an index written by write, checking its checksum and that it was
+	 * built over a graph of the same size as the given one.
+	 *
+	 * @param graph the graph the index was built over, with the same ids
+	 * @param file
+	 * @return the index
+	 * @throws IOException if the file cannot be read, is not an index of a
+	 *                     supported version, fails its checksum or does not
+	 *                     match the graph
+	 */
+	public static <T> LandmarkIndex<T> read(Graph<T> graph, File file) throws IOException {
+		ByteBuffer buffer;
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			FileChannel channel = in.getChannel();
+			if (channel.size() > Integer.MAX_VALUE || channel.size() < HEADER_BYTES + 8) {
+				throw new IOException("Not a landmark index: " + file);
+			}
+			buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("Unexpected end of landmark index: " + file);
+				}
+			}
+		}
+		buffer.flip();
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a landmark index: " + file);
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported landmark index version " + version + ": " + file);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.limit() - 8);
+		if (crc.getValue() != buffer.getLong(buffer.limit() - 8)) {
+			throw new IOException("Landmark index checksum mismatch: " + file);
+		}
+
+		int n = buffer.getInt();
+		int m = buffer.getInt();
+		if (n != graph.size() || m != graph.numEdges()) {
+			throw new IOException("Landmark index does not match the graph: " + file);
+		}
+		int outEntries = buffer.getInt();
+		int inEntries = buffer.getInt();
+		int[] outOffsets = GraphSnapshot.getInts(buffer, n + 1);
+		int[] outHubs = GraphSnapshot.getInts(buffer, outEntries);
+		int[] outDistances = GraphSnapshot.getInts(buffer, outEntries);
+		int[] inOffsets = GraphSnapshot.getInts(buffer, n + 1);
+		int[] inHubs = GraphSnapshot.getInts(buffer, inEntries);
+		int[] inDistances = GraphSnapshot.getInts(buffer, inEntries);
+		return new LandmarkIndex<T>(graph, outOffsets, outHubs, outDistances, inOffsets, inHubs, inDistances, 0);
+	}
+}
@@ -0,0 +1,94 @@
+package graphs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test cases for LandmarkIndex.
+ */
+public class LandmarkIndexTest {
+
+	@Test
+	public void testDistancesMatchBfs() {
+		Graph<Integer> g = GraphAlgorithmsTest.makeRandomGraph(1500, 4000, 59);
+		LandmarkIndex<Integer> index = g.landmarkIndex();
+		assertTrue("Expected: true", index.getMeanLabelSize() >= 2);
+		for (int source = 0; source < g.size(); source += 37) {
+			int[] expected = g.distancesById(source);
+			for (int target = 0; target < g.size(); target++) {
+				assertEquals(expected[target], index.distanceById(source, target));
+			}
+		}
+	}
+
+	@Test
+	public void testShortestPath() {
+		Graph<Integer> g = GraphAlgorithmsTest.makeRandomGraph(800, 2000, 61);
+		LandmarkIndex<Integer> index = g.landmarkIndex();
+		Random random = new Random(67);
+		for (int i = 0; i < 200; i++) {
+			Integer start = random.nextInt(g.size());
+			Integer end = random.nextInt(g.size());
+			List<Integer> expected = g.shortestPath(start, end);
+			List<Integer> path = index.shortestPath(start, end);
+			if (expected == null) {
+				assertNull(path);
+				continue;
+			}
+			assertEquals(expected.size(), path.size());
+			assertEquals(start, path.get(0));
+			assertEquals(end, path.get(path.size() - 1));
+			for (int j = 1; j < path.size(); j++) {
+				assertTrue("Expected: true", g.hasEdge(path.get(j - 1), path.get(j)));
+			}
+		}
+		assertEquals(Arrays.asList(5), index.shortestPath(5, 5));
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Graph<Integer> g = GraphAlgorithmsTest.makeRandomGraph(500, 1500, 71);
+		LandmarkIndex<Integer> index = g.landmarkIndex();
+		File file = File.createTempFile("landmarks", ".index");
+		file.deleteOnExit();
+		index.write(file);
+		LandmarkIndex<Integer> loaded = LandmarkIndex.read(g, file);
+		assertEquals(index.getLabelEntries(), loaded.getLabelEntries());
+		for (int source = 0; source < g.size(); source += 11) {
+			for (int target = 0; target < g.size(); target++) {
+				assertEquals(index.distanceById(source, target), loaded.distanceById(source, target));
+			}
+		}
+		assertArrayEquals(index.shortestPathById(3, 400), loaded.shortestPathById(3, 400));
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(raf.length() - 12);
+			raf.write(0x7f);
+		}
+		try {
+			LandmarkIndex.read(g, file);
+			fail("Did not throw IOException");
+		} catch (IOException e) {
+			// expected
+		}
+		index.write(file);
+		try {
+			LandmarkIndex.read(GraphAlgorithmsTest.makeRandomGraph(501, 1500, 71), file);
+			fail("Did not throw IOException");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
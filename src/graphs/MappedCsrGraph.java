@@ -0,0 +1,324 @@
+package graphs;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable graph with String keys that reads a memory-mapped GraphSnapshot in
+ * place. It has the same layout as CsrGraph, but the offset, target and name
+ * arrays stay in the file instead of being copied onto the heap, so opening it
+ * is near-instant and several JVMs can share one copy of the graph in the page
+ * cache. Obtain one with GraphSnapshot.map.
+ *
+ * A key is found by binary search over the snapshot's name order, and a key is
+ * decoded from the file only when it is handed out, so traversals that work on
+ * vertex ids, such as shortestPath, never create a String for a vertex that
+ * is not in the result.
+ */
+public class MappedCsrGraph extends Graph<String> {
+	private final IntBuffer nameOffsets;
+	private final ByteBuffer names;
+	private final IntBuffer nameOrder;
+	private final IntBuffer outOffsets, outTargets;
+	private final IntBuffer inOffsets, inTargets;
+	private final int size;
+
+	MappedCsrGraph(IntBuffer nameOffsets, ByteBuffer names, IntBuffer nameOrder, IntBuffer outOffsets,
+			IntBuffer outTargets, IntBuffer inOffsets, IntBuffer inTargets) {
+		this.nameOffsets = nameOffsets;
+		this.names = names;
+		this.nameOrder = nameOrder;
+		this.outOffsets = outOffsets;
+		this.outTargets = outTargets;
+		this.inOffsets = inOffsets;
+		this.inTargets = inTargets;
+		this.size = nameOrder.limit();
+	}
+
+	/**
+	 * Compares a UTF-8 key with the name of vertex id, as unsigned bytes.
+	 */
+	private int compareName(byte[] key, int id) {
+		int start = this.nameOffsets.get(id);
+		int length = this.nameOffsets.get(id + 1) - start;
+		int common = Math.min(key.length, length);
+		for (int i = 0; i < common; i++) {
+			int b = this.names.get(start + i) & 0xff;
+			if ((key[i] & 0xff) != b) {
+				return (key[i] & 0xff) - b;
+			}
+		}
+		return key.length - length;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public int numEdges() {
+		return this.outTargets.limit();
+	}
+
+	/**
+	 * MappedCsrGraph is immutable.
+	 *
+	 * @throws NoSuchElementException        if either key is not found in the
+	 *                                       graph
+	 * @throws UnsupportedOperationException otherwise
+	 */
+	@Override
+	public boolean addEdge(String from, String to) {
+		return addEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean addEdgeById(int from, int to) {
+		checkId(from);
+		checkId(to);
+		throw new UnsupportedOperationException("MappedCsrGraph is immutable");
+	}
+
+	@Override
+	public boolean hasVertex(String key) {
+		return idOf(key) != -1;
+	}
+
+	@Override
+	public boolean hasEdge(String from, String to) throws NoSuchElementException {
+		return hasEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean hasEdgeById(int v, int w) throws NoSuchElementException {
+		checkId(v);
+		checkId(w);
+		int low = this.outOffsets.get(v);
+		int high = this.outOffsets.get(v + 1) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int target = this.outTargets.get(mid);
+			if (target < w) {
+				low = mid + 1;
+			} else if (target > w) {
+				high = mid - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * MappedCsrGraph is immutable.
+	 *
+	 * @throws NoSuchElementException        if either key is not found in the
+	 *                                       graph
+	 * @throws UnsupportedOperationException otherwise
+	 */
+	@Override
+	public boolean removeEdge(String from, String to) throws NoSuchElementException {
+		return removeEdgeById(requireId(from), requireId(to));
+	}
+
+	@Override
+	public boolean removeEdgeById(int from, int to) throws NoSuchElementException {
+		checkId(from);
+		checkId(to);
+		throw new UnsupportedOperationException("MappedCsrGraph is immutable");
+	}
+
+	@Override
+	public int outDegree(String key) {
+		return outDegreeById(requireId(key));
+	}
+
+	@Override
+	public int outDegreeById(int v) {
+		checkId(v);
+		return this.outOffsets.get(v + 1) - this.outOffsets.get(v);
+	}
+
+	@Override
+	public int inDegree(String key) {
+		return inDegreeById(requireId(key));
+	}
+
+	@Override
+	public int inDegreeById(int v) {
+		checkId(v);
+		return this.inOffsets.get(v + 1) - this.inOffsets.get(v);
+	}
+
+	/**
+	 * Returns a view of the keys that decodes each one as it is iterated.
+	 */
+	@Override
+	public Set<String> keySet() {
+		return new AbstractSet<String>() {
+			@Override
+			public int size() {
+				return MappedCsrGraph.this.size;
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof String && idOf((String) o) != -1;
+			}
+
+			@Override
+			public Iterator<String> iterator() {
+				return new Iterator<String>() {
+					int next = 0;
+
+					@Override
+					public boolean hasNext() {
+						return this.next < MappedCsrGraph.this.size;
+					}
+
+					@Override
+					public String next() {
+						if (this.next >= MappedCsrGraph.this.size) {
+							throw new NoSuchElementException();
+						}
+						return keyOf(this.next++);
+					}
+				};
+			}
+		};
+	}
+
+	@Override
+	public Set<String> successorSet(String key) {
+		int v = requireId(key);
+		return rowToSet(this.outOffsets, this.outTargets, v);
+	}
+
+	@Override
+	public Set<String> predecessorSet(String key) {
+		int v = requireId(key);
+		return rowToSet(this.inOffsets, this.inTargets, v);
+	}
+
+	private Set<String> rowToSet(IntBuffer offsets, IntBuffer targets, int v) {
+		Set<String> set = new HashSet<String>();
+		for (int i = offsets.get(v); i < offsets.get(v + 1); i++) {
+			set.add(keyOf(targets.get(i)));
+		}
+		return set;
+	}
+
+	@Override
+	public Iterator<String> successorIterator(String key) {
+		int v = requireId(key);
+		return new RowIterator(this.outTargets, this.outOffsets.get(v), this.outOffsets.get(v + 1));
+	}
+
+	@Override
+	public Iterator<String> predecessorIterator(String key) {
+		int v = requireId(key);
+		return new RowIterator(this.inTargets, this.inOffsets.get(v), this.inOffsets.get(v + 1));
+	}
+
+	class RowIterator implements Iterator<String> {
+		IntBuffer targets;
+		int position, end;
+
+		public RowIterator(IntBuffer targets, int start, int end) {
+			this.targets = targets;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.position < this.end;
+		}
+
+		@Override
+		public String next() {
+			if (this.position >= this.end) {
+				throw new NoSuchElementException();
+			}
+			return keyOf(this.targets.get(this.position++));
+		}
+	}
+
+	@Override
+	public int idOf(String key) {
+		if (key == null) {
+			return -1;
+		}
+		byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = this.size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int id = this.nameOrder.get(mid);
+			int cmp = compareName(bytes, id);
+			if (cmp > 0) {
+				low = mid + 1;
+			} else if (cmp < 0) {
+				high = mid - 1;
+			} else {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String keyOf(int id) {
+		checkId(id);
+		int start = this.nameOffsets.get(id);
+		byte[] bytes = new byte[this.nameOffsets.get(id + 1) - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = this.names.get(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public IdCursor successorCursor() {
+		return new BufferCursor(this.outOffsets, this.outTargets);
+	}
+
+	@Override
+	public IdCursor predecessorCursor() {
+		return new BufferCursor(this.inOffsets, this.inTargets);
+	}
+
+	static class BufferCursor implements IdCursor {
+		IntBuffer offsets, targets;
+		int position, end;
+
+		BufferCursor(IntBuffer offsets, IntBuffer targets) {
+			this.offsets = offsets;
+			this.targets = targets;
+		}
+
+		@Override
+		public IdCursor reset(int id) {
+			this.position = this.offsets.get(id);
+			this.end = this.offsets.get(id + 1);
+			return this;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.position < this.end;
+		}
+
+		@Override
+		public int next() {
+			return this.targets.get(this.position++);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for MappedCsrGraph, mapping snapshots of the example graph from
+ * the milestone tests.
+ */
+public class MappedCsrGraphTest {
+
+	private MappedCsrGraph mapExampleGraph() throws IOException {
+		Graph<String> g = new AdjacencyListGraph<String>(new HashSet<String>(Arrays.asList("a","b","c","d","e","f")));
+		g.addEdge("a", "b");
+		g.addEdge("a", "c");
+		g.addEdge("b", "d");
+		g.addEdge("c", "d");
+		g.addEdge("d", "c");
+		g.addEdge("d", "e");
+		g.addEdge("d", "f");
+		g.addEdge("f", "c");
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		GraphSnapshot.write(new CsrGraph<String>(g), file);
+		return GraphSnapshot.map(file);
+	}
+
+	@Test
+	public void testMappedReadOperations() throws IOException {
+		Graph<String> g = mapExampleGraph();
+		assertEquals(6, g.size());
+		assertEquals(8, g.numEdges());
+		assertEquals(new HashSet<String>(Arrays.asList("a","b","c","d","e","f")), g.keySet());
+		assertTrue("Expected: true", g.hasVertex("f"));
+		assertFalse("Expected: false", g.hasVertex("z"));
+		assertTrue("Expected: true", g.hasEdge("a","b"));
+		assertTrue("Expected: true", g.hasEdge("f","c"));
+		assertFalse("Expected: false", g.hasEdge("b","c"));
+		assertEquals(3, g.inDegree("c"));
+		assertEquals(3, g.outDegree("d"));
+		assertEquals(0, g.outDegree("e"));
+		assertEquals(new HashSet<String>(Arrays.asList("c","e","f")), g.successorSet("d"));
+
+		Iterator<String> it = g.predecessorIterator("c");
+		Set<String> returned = new HashSet<String>();
+		while (it.hasNext()) {
+			returned.add(it.next());
+		}
+		assertEquals(new HashSet<String>(Arrays.asList("a","d","f")), returned);
+		try {
+			g.successorIterator("z");
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+		try {
+			g.addEdge("a", "e");
+			fail("Did not throw UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testMappedAlgorithms() throws IOException {
+		Graph<String> g = mapExampleGraph();
+		assertEquals(Arrays.asList("f","c","d","e"), g.shortestPath("f","e"));
+		assertEquals(null, g.shortestPath("e","a"));
+		assertEquals(new HashSet<String>(Arrays.asList("c","d","f")), g.stronglyConnectedComponent("f"));
+	}
+
+	@Test
+	public void testMappedLooksUpUnicodeNames() throws IOException {
+		// sorted as UTF-16 these would come in a different order than as UTF-8
+		List<String> keys = Arrays.asList("\uff21", "\ud83d\ude00", "Zo\u00eb", "Bj\u00f6rk", "Bjork");
+		int[] from = {0, 1, 2, 3};
+		int[] to = {1, 2, 3, 4};
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		GraphSnapshot.write(new CsrGraph<String>(keys, from, to, from.length), file);
+		Graph<String> g = GraphSnapshot.map(file);
+		for (String key : keys) {
+			assertTrue("Expected: true", g.hasVertex(key));
+		}
+		assertFalse("Expected: false", g.hasVertex("Bj"));
+		assertEquals(keys, g.shortestPath("\uff21", "Bjork"));
+	}
+
+	@Test
+	public void testRewriteKeepsExistingMapping() throws IOException {
+		List<String> keys = Arrays.asList("a", "b", "c");
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		GraphSnapshot.write(new CsrGraph<String>(keys, new int[] {0, 1}, new int[] {1, 2}, 2), file);
+		Graph<String> mapped = GraphSnapshot.map(file);
+		List<String> otherKeys = Arrays.asList("x", "y", "z", "w");
+		GraphSnapshot.write(new CsrGraph<String>(otherKeys, new int[] {2}, new int[] {0}, 1), file);
+		assertEquals(new HashSet<String>(keys), mapped.keySet());
+		assertEquals(keys, mapped.shortestPath("a", "c"));
+		Graph<String> remapped = GraphSnapshot.map(file);
+		assertEquals(new HashSet<String>(otherKeys), remapped.keySet());
+		assertEquals(1, remapped.numEdges());
+		File[] leftovers = file.getAbsoluteFile().getParentFile()
+				.listFiles((directory, name) -> name.startsWith(file.getName()) && name.endsWith(".tmp"));
+		assertEquals(0, leftovers.length);
+	}
+}
@@ -0,0 +1,127 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first searches from many sources at once, 64 to a batch, sharing
+ * one pass over the edges between all the searches of a batch (Then et al.,
+ * "The More the Merrier: Efficient Multi-Source Graph Traversal"). Each
+ * vertex carries a long in which bit i stands for the i-th source of the
+ * batch:
+ *
+ * seen[v] has bit i set once search i has reached v, and visit[v] once v is
+ * in the current frontier of search i.
+ *
+ * Expanding a level walks the edges (v, w) of every vertex with a non-zero
+ * visit[v] once, and hands w the searches visit[v] & ~seen[w] in a single
+ * operation. On a small-world graph the frontiers of different sources soon
+ * overlap, so a batch costs little more than one BFS rather than 64.
+ */
+final class MultiSourceBfs {
+	private final Graph<?> graph;
+	private final int n;
+	private final IdCursor successors;
+	private final long[] seen;
+	private long[] visit;
+	private long[] visitNext;
+
+	MultiSourceBfs(Graph<?> graph) {
+		this.graph = graph;
+		this.n = graph.size();
+		this.successors = graph.successorCursor();
+		this.seen = new long[this.n];
+		this.visit = new long[this.n];
+		this.visitNext = new long[this.n];
+	}
+
+	/**
+	 * @param sources ids to search from
+	 * @return one row per source, whose element v is the distance from that
+	 *         source to v, or -1 if v cannot be reached
+	 */
+	int[][] distances(int[] sources) {
+		int[][] rows = new int[sources.length][this.n];
+		for (int[] row : rows) {
+			Arrays.fill(row, -1);
+		}
+		for (int from = 0; from < sources.length; from += 64) {
+			run(sources, from, Math.min(64, sources.length - from), rows, null);
+		}
+		return rows;
+	}
+
+	/**
+	 * @param sources ids to search from
+	 * @return the out-eccentricity of each source, the greatest distance from
+	 *         it to a vertex it can reach
+	 */
+	int[] eccentricities(int[] sources) {
+		int[] eccentricity = new int[sources.length];
+		for (int from = 0; from < sources.length; from += 64) {
+			run(sources, from, Math.min(64, sources.length - from), null, eccentricity);
+		}
+		return eccentricity;
+	}
+
+	/**
+	 * Runs the searches from sources[from, from + count), count at most 64,
+	 * filling in their rows of distances and their eccentricities, either of
+	 * which may be null.
+	 */
+	private void run(int[] sources, int from, int count, int[][] rows, int[] eccentricity) {
+		long[] seen = this.seen;
+		long[] visit = this.visit;
+		long[] visitNext = this.visitNext;
+		Arrays.fill(seen, 0);
+		Arrays.fill(visit, 0);
+		for (int i = 0; i < count; i++) {
+			int s = this.graph.checkId(sources[from + i]);
+			seen[s] |= 1L << i;
+			visit[s] |= 1L << i;
+			if (rows != null) {
+				rows[from + i][s] = 0;
+			}
+		}
+		IdCursor cursor = this.successors;
+		boolean active = true;
+		for (int level = 1; active; level++) {
+			active = false;
+			// the searches that reach some new vertex on this level
+			long reached = 0;
+			for (int v = 0; v < this.n; v++) {
+				long searches = visit[v];
+				if (searches == 0) {
+					continue;
+				}
+				for (cursor.reset(v); cursor.hasNext();) {
+					int w = cursor.next();
+					long fresh = searches & ~seen[w];
+					if (fresh != 0) {
+						seen[w] |= fresh;
+						visitNext[w] |= fresh;
+						reached |= fresh;
+						if (rows != null) {
+							for (long bits = fresh; bits != 0; bits &= bits - 1) {
+								rows[from + Long.numberOfTrailingZeros(bits)][w] = level;
+							}
+						}
+					}
+				}
+			}
+			if (reached != 0) {
+				active = true;
+				if (eccentricity != null) {
+					for (long bits = reached; bits != 0; bits &= bits - 1) {
+						eccentricity[from + Long.numberOfTrailingZeros(bits)] = level;
+					}
+				}
+			}
+			long[] swap = visit;
+			visit = visitNext;
+			visitNext = swap;
+			Arrays.fill(visitNext, 0);
+		}
+		this.visit = visit;
+		this.visitNext = visitNext;
+	}
+}
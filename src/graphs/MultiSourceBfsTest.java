@@ -0,0 +1,61 @@
+package graphs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test cases for MultiSourceBfs.
+ */
+public class MultiSourceBfsTest {
+
+	@Test
+	public void testMultiSourceMatchesSingleSource() {
+		Graph<Integer> g = new CsrGraph<Integer>(GraphAlgorithmsTest.makeRandomGraph(2000, 5000, 37));
+		// more than one batch, with a repeated source
+		int[] sources = new int[150];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = (i * 13) % g.size();
+		}
+		sources[100] = sources[3];
+		int[][] rows = g.distancesById(sources);
+		int[] eccentricities = g.eccentricitiesById(sources);
+		for (int i = 0; i < sources.length; i++) {
+			int[] expected = g.distancesById(sources[i]);
+			assertArrayEquals(expected, rows[i]);
+			assertEquals(Arrays.stream(expected).max().getAsInt(), eccentricities[i]);
+			assertEquals(g.eccentricity(g.keyOf(sources[i])), eccentricities[i]);
+		}
+	}
+
+	@Test
+	public void testFullBatches() {
+		// a directed cycle on the ids, where every source has eccentricity n - 1
+		int n = 130;
+		Graph<Integer> g = GraphAlgorithmsTest.makeRandomGraph(n, 0, 1);
+		int[] from = new int[n];
+		int[] to = new int[n];
+		for (int i = 0; i < n; i++) {
+			from[i] = i;
+			to[i] = (i + 1) % n;
+		}
+		g.addEdgesById(from, to);
+		for (int count : new int[] {64, 65, 128}) {
+			int[] sources = new int[count];
+			for (int i = 0; i < count; i++) {
+				sources[i] = i;
+			}
+			MultiSourceBfs bfs = new MultiSourceBfs(g);
+			int[][] rows = bfs.distances(sources);
+			int[] eccentricities = bfs.eccentricities(sources);
+			for (int i = 0; i < count; i++) {
+				assertEquals(n - 1, eccentricities[i]);
+				assertEquals((count - 1 - i + n) % n, rows[i][count - 1]);
+				assertEquals(0, rows[i][i]);
+			}
+		}
+	}
+}
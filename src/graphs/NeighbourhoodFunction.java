@@ -0,0 +1,140 @@
+package graphs;
+
+/**
+ * An estimate of a graph's neighbourhood function N(t), the number of ordered
+ * pairs of vertices (x, y) with a path of at most t edges from x to y, counting
+ * each vertex as reaching itself, together with the statistics derived from
+ * it. Obtain one with Graph.neighbourhoodFunction; see HyperAnf.
+ *
+ * Each N(t) has a relative standard deviation of at most
+ * getRelativeStandardDeviation(); getLowerBound and getUpperBound give the
+ * estimate minus and plus two standard deviations.
+ */
+public class NeighbourhoodFunction {
+	private final double[] function;
+	private final double relativeStandardDeviation;
+
+	NeighbourhoodFunction(double[] function, double relativeStandardDeviation) {
+		this.function = function;
+		this.relativeStandardDeviation = relativeStandardDeviation;
+	}
+
+	/**
+	 * @return the largest t for which N(t) is given; beyond it N(t) is constant.
+	 *         This estimates the diameter, and falls short of it when the last
+	 *         levels add vertices without raising any register
+	 */
+	public int getMaxDistance() {
+		return Math.max(0, this.function.length - 1);
+	}
+
+	/**
+	 * @param t
+	 * @return the estimated number of pairs at distance at most t
+	 */
+	public double getPairs(int t) {
+		if (this.function.length == 0 || t < 0) {
+			return 0;
+		}
+		return this.function[Math.min(t, this.function.length - 1)];
+	}
+
+	/**
+	 * @return an array whose element t is the estimate of N(t), of length
+	 *         getMaxDistance() + 1
+	 */
+	public double[] getFunction() {
+		return this.function.clone();
+	}
+
+	/**
+	 * @return the relative standard deviation of every N(t)
+	 */
+	public double getRelativeStandardDeviation() {
+		return this.relativeStandardDeviation;
+	}
+
+	/**
+	 * @param t
+	 * @return N(t) less two standard deviations
+	 */
+	public double getLowerBound(int t) {
+		return Math.max(0, getPairs(t) * (1 - 2 * this.relativeStandardDeviation));
+	}
+
+	/**
+	 * @param t
+	 * @return N(t) plus two standard deviations
+	 */
+	public double getUpperBound(int t) {
+		return getPairs(t) * (1 + 2 * this.relativeStandardDeviation);
+	}
+
+	/**
+	 * @return an array whose element t is the estimated number of pairs at
+	 *         distance exactly t, N(t) - N(t - 1), of length getMaxDistance() + 1
+	 */
+	public double[] getDistanceHistogram() {
+		double[] histogram = new double[this.function.length];
+		for (int t = 0; t < histogram.length; t++) {
+			histogram[t] = getPairs(t) - getPairs(t - 1);
+		}
+		return histogram;
+	}
+
+	/**
+	 * @return the estimated mean distance over all pairs of distinct vertices
+	 *         joined by a path, or 0 if there are none
+	 */
+	public double getAveragePathLength() {
+		double weighted = 0;
+		for (int t = 1; t < this.function.length; t++) {
+			weighted += t * (this.function[t] - this.function[t - 1]);
+		}
+		double pairs = getPairs(getMaxDistance()) - getPairs(0);
+		return pairs <= 0 ? 0 : weighted / pairs;
+	}
+
+	/**
+	 * @return the effective diameter at 90%
+	 * @see #getEffectiveDiameter(double)
+	 */
+	public double getEffectiveDiameter() {
+		return getEffectiveDiameter(0.9);
+	}
+
+	/**
+	 * @param fraction in (0, 1]
+	 * @return the smallest t for which N(t) reaches the given fraction of all
+	 *         pairs joined by a path, interpolating linearly between integers
+	 */
+	public double getEffectiveDiameter(double fraction) {
+		if (!(fraction > 0 && fraction <= 1)) {
+			throw new IllegalArgumentException("fraction must be in (0, 1]");
+		}
+		double target = fraction * getPairs(getMaxDistance());
+		for (int t = 0; t < this.function.length; t++) {
+			if (this.function[t] >= target) {
+				if (t == 0) {
+					return 0;
+				}
+				double step = this.function[t] - this.function[t - 1];
+				return t - 1 + (target - this.function[t - 1]) / step;
+			}
+		}
+		return getMaxDistance();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("average path length %.3f, effective diameter %.3f, max distance %d (+/- %.1f%%)",
+				getAveragePathLength(), getEffectiveDiameter(), getMaxDistance(),
+				200 * this.relativeStandardDeviation));
+		for (int t = 0; t < this.function.length; t++) {
+			sb.append(String.format("%nN(%d) = %.0f [%.0f, %.0f]", t, this.function[t], getLowerBound(t),
+					getUpperBound(t)));
+		}
+		return sb.toString();
+	}
+}
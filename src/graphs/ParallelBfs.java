@@ -0,0 +1,167 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-synchronous breadth-first search from one vertex that spreads each
+ * level over the threads of a ForkJoinPool, giving the distance to every
+ * vertex. It works through the graph's own successor cursors, one per task,
+ * so it runs on any Graph without copying it.
+ *
+ * Each level's frontier is cut into chunks. A task claims the unvisited
+ * successors of its chunk by setting their bits in a shared visited bitset
+ * with compare-and-set, so exactly one task claims each vertex and writes its
+ * distance. The task keeps the vertices it claims in a buffer of its own.
+ * Between levels the buffers are concatenated into the next frontier. A level
+ * too small to be worth splitting runs on the calling thread.
+ */
+final class ParallelBfs {
+	/** Fewest frontier vertices worth a task of their own. */
+	private static final int MIN_CHUNK = 512;
+
+	private final Graph<?> graph;
+	private final ForkJoinPool pool;
+	private final int maxChunks;
+	private final AtomicLongArray visited;
+	private final int[] distance;
+	private final IdCursor[] cursors;
+	private final int[][] buffers;
+	private final int[] counts;
+
+	private ParallelBfs(Graph<?> graph, ForkJoinPool pool) {
+		this.graph = graph;
+		this.pool = pool;
+		this.maxChunks = 4 * pool.getParallelism();
+		int n = graph.size();
+		this.visited = new AtomicLongArray((n + 63) >>> 6);
+		this.distance = new int[n];
+		Arrays.fill(this.distance, -1);
+		this.cursors = new IdCursor[this.maxChunks];
+		this.buffers = new int[this.maxChunks][16];
+		this.counts = new int[this.maxChunks];
+	}
+
+	/**
+	 * @param graph
+	 * @param source the id to search from
+	 * @param pool   the pool to run the tasks in
+	 * @return the distance from source to every vertex id, -1 where it cannot
+	 *         be reached
+	 */
+	static int[] distances(Graph<?> graph, int source, ForkJoinPool pool) {
+		return new ParallelBfs(graph, pool).run(source);
+	}
+
+	private int[] run(int source) {
+		int n = this.graph.size();
+		int[] frontier = new int[n];
+		int[] next = new int[n];
+		frontier[0] = source;
+		int size = 1;
+		visit(source);
+		this.distance[source] = 0;
+		for (int level = 1; size > 0; level++) {
+			int chunks = Math.min(this.maxChunks, (size + MIN_CHUNK - 1) / MIN_CHUNK);
+			if (chunks <= 1) {
+				expand(0, frontier, 0, size, level);
+				System.arraycopy(this.buffers[0], 0, next, 0, this.counts[0]);
+				size = this.counts[0];
+			} else {
+				List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(chunks);
+				for (int c = 0; c < chunks; c++) {
+					tasks.add(new Expand(c, frontier, (int) ((long) size * c / chunks),
+							(int) ((long) size * (c + 1) / chunks), level));
+				}
+				this.pool.invoke(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute() {
+						invokeAll(tasks);
+					}
+				});
+				size = 0;
+				for (int c = 0; c < chunks; c++) {
+					System.arraycopy(this.buffers[c], 0, next, size, this.counts[c]);
+					size += this.counts[c];
+				}
+			}
+			int[] swap = frontier;
+			frontier = next;
+			next = swap;
+		}
+		return this.distance;
+	}
+
+	/**
+	 * Claims a vertex for the calling task.
+	 *
+	 * @return true if the vertex was not visited before, by any task
+	 */
+	private boolean visit(int v) {
+		int word = v >>> 6;
+		long bit = 1L << v;
+		long bits = this.visited.get(word);
+		while ((bits & bit) == 0) {
+			if (this.visited.compareAndSet(word, bits, bits | bit)) {
+				return true;
+			}
+			bits = this.visited.get(word);
+		}
+		return false;
+	}
+
+	/**
+	 * Visits the successors of frontier[from, to), collecting the vertices it
+	 * claims in the buffer of chunk c.
+	 */
+	private void expand(int c, int[] frontier, int from, int to, int level) {
+		IdCursor cursor = this.cursors[c];
+		if (cursor == null) {
+			cursor = this.graph.successorCursor();
+			this.cursors[c] = cursor;
+		}
+		int[] buffer = this.buffers[c];
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			for (cursor.reset(frontier[i]); cursor.hasNext();) {
+				int w = cursor.next();
+				if ((this.visited.get(w >>> 6) & (1L << w)) == 0 && visit(w)) {
+					this.distance[w] = level;
+					if (count == buffer.length) {
+						buffer = Arrays.copyOf(buffer, 2 * count);
+					}
+					buffer[count++] = w;
+				}
+			}
+		}
+		this.buffers[c] = buffer;
+		this.counts[c] = count;
+	}
+
+	private class Expand extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int chunk;
+		private final int[] frontier;
+		private final int from, to;
+		private final int level;
+
+		Expand(int chunk, int[] frontier, int from, int to, int level) {
+			this.chunk = chunk;
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+			this.level = level;
+		}
+
+		@Override
+		protected void compute() {
+			expand(this.chunk, this.frontier, this.from, this.to, this.level);
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Labels strongly connected components in parallel with the forward-backward
+ * algorithm. Each subproblem is a set of vertices sharing a color:
+ *
+ * 1. Trim: vertices with no predecessor or no successor inside the set are
+ * components on their own; removing them may expose more, so this repeats.
+ *
+ * 2. Pick a pivot and find everything it reaches (forward) and everything that
+ * reaches it (backward) inside the set, running both searches at once. The
+ * intersection is the pivot's component.
+ *
+ * 3. Forward-only, backward-only and unreached vertices cannot share a component
+ * with each other, so each group gets a fresh color and is solved as an
+ * independent fork/join task.
+ *
+ * Small sets are finished with a sequential Tarjan pass restricted to their
+ * color. Colors are never reused, so a task can stamp its reach searches with
+ * its own color, and concurrent tasks only ever write to their own vertices.
+ */
+final class ParallelSccDecomposition {
+	private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+	private final int[] outOffsets, outTargets;
+	private final int[] inOffsets, inTargets;
+	private final int[] color;
+	private final int[] component;
+	private final int[] forwardMark, backwardMark;
+	private final int[] inDegree, outDegree;
+	private final int[] index, low, edge;
+	private final boolean[] onStack;
+	private final AtomicInteger nextColor = new AtomicInteger(2);
+	private final AtomicInteger nextComponent = new AtomicInteger();
+
+	private ParallelSccDecomposition(Graph<?> graph) {
+		int n = graph.size();
+		int[][] out = CsrGraph.rows(graph, true);
+		int[][] in = CsrGraph.rows(graph, false);
+		this.outOffsets = out[0];
+		this.outTargets = out[1];
+		this.inOffsets = in[0];
+		this.inTargets = in[1];
+		this.color = new int[n];
+		this.component = new int[n];
+		this.forwardMark = new int[n];
+		this.backwardMark = new int[n];
+		this.inDegree = new int[n];
+		this.outDegree = new int[n];
+		this.index = new int[n];
+		this.low = new int[n];
+		this.edge = new int[n];
+		this.onStack = new boolean[n];
+	}
+
+	/**
+	 * @param graph
+	 * @param pool  the pool to run the tasks in
+	 * @return the component id of every vertex id, dense from 0
+	 */
+	static int[] label(Graph<?> graph, ForkJoinPool pool) {
+		ParallelSccDecomposition scc = new ParallelSccDecomposition(graph);
+		int[] all = new int[graph.size()];
+		for (int v = 0; v < all.length; v++) {
+			all[v] = v;
+		}
+		// every vertex starts with color 1; 0 is what the mark arrays start at
+		Arrays.fill(scc.color, 1);
+		pool.invoke(scc.new Solve(all, 1));
+		return scc.component;
+	}
+
+	private class Solve extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] set;
+		private final int c;
+
+		Solve(int[] set, int c) {
+			this.set = set;
+			this.c = c;
+		}
+
+		@Override
+		protected void compute() {
+			int[] set = trim(this.set, this.c);
+			if (set.length == 0) {
+				return;
+			}
+			if (set.length < SEQUENTIAL_THRESHOLD) {
+				tarjan(set, this.c);
+				return;
+			}
+
+			int pivot = set[0];
+			long best = -1;
+			for (int v : set) {
+				long score = (long) inDegree[v] * outDegree[v];
+				if (score > best) {
+					best = score;
+					pivot = v;
+				}
+			}
+			Reach forward = new Reach(pivot, this.c, outOffsets, outTargets, forwardMark);
+			forward.fork();
+			new Reach(pivot, this.c, inOffsets, inTargets, backwardMark).compute();
+			forward.join();
+
+			int id = nextComponent.getAndIncrement();
+			int forwardOnly = 0, backwardOnly = 0, neither = 0;
+			for (int v : set) {
+				boolean f = forwardMark[v] == this.c;
+				boolean b = backwardMark[v] == this.c;
+				if (f && b) {
+					component[v] = id;
+					color[v] = -1;
+				} else if (f) {
+					forwardOnly++;
+				} else if (b) {
+					backwardOnly++;
+				} else {
+					neither++;
+				}
+			}
+			int[][] parts = { new int[forwardOnly], new int[backwardOnly], new int[neither] };
+			int[] colors = { nextColor.getAndIncrement(), nextColor.getAndIncrement(),
+					nextColor.getAndIncrement() };
+			int[] fill = new int[3];
+			for (int v : set) {
+				if (color[v] == -1) {
+					continue;
+				}
+				int part = forwardMark[v] == this.c ? 0 : backwardMark[v] == this.c ? 1 : 2;
+				parts[part][fill[part]++] = v;
+				color[v] = colors[part];
+			}
+			invokeAll(new Solve(parts[0], colors[0]), new Solve(parts[1], colors[1]),
+					new Solve(parts[2], colors[2]));
+		}
+	}
+
+	/**
+	 * Breadth-first search inside one color, stamping the mark array with it.
+	 */
+	private class Reach extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int source, c;
+		private final int[] offsets, targets, mark;
+
+		Reach(int source, int c, int[] offsets, int[] targets, int[] mark) {
+			this.source = source;
+			this.c = c;
+			this.offsets = offsets;
+			this.targets = targets;
+			this.mark = mark;
+		}
+
+		@Override
+		protected void compute() {
+			int[] queue = new int[64];
+			int head = 0, tail = 0;
+			queue[tail++] = this.source;
+			this.mark[this.source] = this.c;
+			while (head < tail) {
+				int u = queue[head++];
+				for (int i = this.offsets[u]; i < this.offsets[u + 1]; i++) {
+					int w = this.targets[i];
+					if (color[w] == this.c && this.mark[w] != this.c) {
+						this.mark[w] = this.c;
+						if (tail == queue.length) {
+							queue = Arrays.copyOf(queue, 2 * tail);
+						}
+						queue[tail++] = w;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Repeatedly removes vertices of color c that have no predecessor or no
+	 * successor of color c, making each its own component.
+	 *
+	 * @return the vertices of the set that survive
+	 */
+	private int[] trim(int[] set, int c) {
+		if (set.length >= SEQUENTIAL_THRESHOLD) {
+			IntStream.of(set).parallel().forEach(v -> countDegrees(v, c));
+		} else {
+			for (int v : set) {
+				countDegrees(v, c);
+			}
+		}
+		// a vertex is queued at most twice: once per degree that drops to zero
+		int[] queue = new int[2 * set.length];
+		int tail = 0;
+		for (int v : set) {
+			if (this.inDegree[v] == 0 || this.outDegree[v] == 0) {
+				queue[tail++] = v;
+			}
+		}
+		int removed = 0;
+		for (int head = 0; head < tail; head++) {
+			int v = queue[head];
+			if (this.color[v] != c) {
+				continue;
+			}
+			this.color[v] = -1;
+			this.component[v] = this.nextComponent.getAndIncrement();
+			removed++;
+			for (int i = this.outOffsets[v]; i < this.outOffsets[v + 1]; i++) {
+				int w = this.outTargets[i];
+				if (this.color[w] == c && --this.inDegree[w] == 0) {
+					queue[tail++] = w;
+				}
+			}
+			for (int i = this.inOffsets[v]; i < this.inOffsets[v + 1]; i++) {
+				int w = this.inTargets[i];
+				if (this.color[w] == c && --this.outDegree[w] == 0) {
+					queue[tail++] = w;
+				}
+			}
+		}
+		if (removed == 0) {
+			return set;
+		}
+		int[] survivors = new int[set.length - removed];
+		int count = 0;
+		for (int v : set) {
+			if (this.color[v] == c) {
+				survivors[count++] = v;
+			}
+		}
+		return survivors;
+	}
+
+	private void countDegrees(int v, int c) {
+		int out = 0, in = 0;
+		for (int i = this.outOffsets[v]; i < this.outOffsets[v + 1]; i++) {
+			if (this.color[this.outTargets[i]] == c) {
+				out++;
+			}
+		}
+		for (int i = this.inOffsets[v]; i < this.inOffsets[v + 1]; i++) {
+			if (this.color[this.inTargets[i]] == c) {
+				in++;
+			}
+		}
+		this.outDegree[v] = out;
+		this.inDegree[v] = in;
+	}
+
+	/**
+	 * Iterative Tarjan, as in SccDecomposition, over the vertices of color c.
+	 */
+	private void tarjan(int[] set, int c) {
+		int[] stack = new int[set.length];
+		int[] calls = new int[set.length];
+		for (int v : set) {
+			this.index[v] = -1;
+		}
+		int counter = 0, stackSize = 0;
+		for (int root : set) {
+			if (this.index[root] != -1) {
+				continue;
+			}
+			int depth = 0;
+			calls[depth++] = root;
+			this.index[root] = this.low[root] = counter++;
+			this.edge[root] = this.outOffsets[root];
+			stack[stackSize++] = root;
+			this.onStack[root] = true;
+			while (depth > 0) {
+				int v = calls[depth - 1];
+				if (this.edge[v] < this.outOffsets[v + 1]) {
+					int w = this.outTargets[this.edge[v]++];
+					if (this.color[w] != c) {
+						continue;
+					}
+					if (this.index[w] == -1) {
+						this.index[w] = this.low[w] = counter++;
+						this.edge[w] = this.outOffsets[w];
+						stack[stackSize++] = w;
+						this.onStack[w] = true;
+						calls[depth++] = w;
+					} else if (this.onStack[w] && this.index[w] < this.low[v]) {
+						this.low[v] = this.index[w];
+					}
+					continue;
+				}
+				depth--;
+				if (this.low[v] == this.index[v]) {
+					int id = this.nextComponent.getAndIncrement();
+					int w;
+					do {
+						w = stack[--stackSize];
+						this.onStack[w] = false;
+						this.component[w] = id;
+					} while (w != v);
+				}
+				if (depth > 0) {
+					int parent = calls[depth - 1];
+					if (this.low[v] < this.low[parent]) {
+						this.low[parent] = this.low[v];
+					}
+				}
+			}
+		}
+		// leave the vertices marked as assigned only after the whole pass, since
+		// the color test above is what keeps the search inside the set
+		for (int v : set) {
+			this.color[v] = -1;
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A labeling of every vertex of a graph with the id of its strongly connected
+ * component, computed in one pass of Tarjan's algorithm. The recursion is
+ * replaced by an explicit call stack and a per-vertex edge position, so deep
+ * graphs cannot overflow the Java stack.
+ *
+ * Component ids are dense in [0, componentCount()) and numbered in order of
+ * each component's smallest vertex id, so any algorithm that finds the same
+ * components yields the same labeling. Members of each component
+ * are stored contiguously, so the component of a vertex, its size and the
+ * largest component are all constant-time lookups.
+ *
+ * The labeling is a snapshot; Graph.components() recomputes it after the
+ * edges change.
+ *
+ * @param <T>
+ */
+public class SccDecomposition<T> {
+	private final Graph<T> graph;
+	private final int[] component;
+	private final int[] memberOffsets;
+	private final int[] members;
+	private final int largest;
+
+	SccDecomposition(Graph<T> graph) {
+		this(graph, tarjan(graph));
+	}
+
+	/**
+	 * Wraps an existing labeling, renumbering its components canonically.
+	 *
+	 * @param graph
+	 * @param component the component id of every vertex id, dense from 0;
+	 *                  renumbered in place
+	 */
+	SccDecomposition(Graph<T> graph, int[] component) {
+		this.graph = graph;
+		this.component = component;
+		int count = 0;
+		for (int c : component) {
+			count = Math.max(count, c + 1);
+		}
+		int[] renumber = new int[count];
+		Arrays.fill(renumber, -1);
+		int next = 0;
+		for (int v = 0; v < component.length; v++) {
+			if (renumber[component[v]] == -1) {
+				renumber[component[v]] = next++;
+			}
+			component[v] = renumber[component[v]];
+		}
+		this.memberOffsets = new int[count + 1];
+		for (int c : component) {
+			this.memberOffsets[c + 1]++;
+		}
+		int largest = -1;
+		for (int c = 0; c < count; c++) {
+			if (largest == -1 || this.memberOffsets[c + 1] > this.memberOffsets[largest + 1]) {
+				largest = c;
+			}
+		}
+		for (int c = 0; c < count; c++) {
+			this.memberOffsets[c + 1] += this.memberOffsets[c];
+		}
+		this.largest = largest;
+		this.members = new int[component.length];
+		int[] fill = new int[count];
+		for (int v = 0; v < component.length; v++) {
+			int c = component[v];
+			this.members[this.memberOffsets[c] + fill[c]++] = v;
+		}
+	}
+
+	/**
+	 * Iterative Tarjan over the graph's successor rows.
+	 *
+	 * @return the component id of every vertex id
+	 */
+	private static int[] tarjan(Graph<?> graph) {
+		int n = graph.size();
+		int[][] rows = CsrGraph.rows(graph, true);
+		int[] offsets = rows[0];
+		int[] targets = rows[1];
+
+		int[] index = new int[n];
+		int[] low = new int[n];
+		int[] edge = new int[n];
+		int[] component = new int[n];
+		int[] stack = new int[n];
+		int[] calls = new int[n];
+		boolean[] onStack = new boolean[n];
+		for (int v = 0; v < n; v++) {
+			index[v] = -1;
+		}
+
+		int counter = 0, components = 0;
+		int stackSize = 0;
+		for (int root = 0; root < n; root++) {
+			if (index[root] != -1) {
+				continue;
+			}
+			int depth = 0;
+			calls[depth++] = root;
+			index[root] = low[root] = counter++;
+			edge[root] = offsets[root];
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			while (depth > 0) {
+				int v = calls[depth - 1];
+				if (edge[v] < offsets[v + 1]) {
+					int w = targets[edge[v]++];
+					if (index[w] == -1) {
+						index[w] = low[w] = counter++;
+						edge[w] = offsets[w];
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						calls[depth++] = w;
+					} else if (onStack[w] && index[w] < low[v]) {
+						low[v] = index[w];
+					}
+					continue;
+				}
+				depth--;
+				if (low[v] == index[v]) {
+					int w;
+					do {
+						w = stack[--stackSize];
+						onStack[w] = false;
+						component[w] = components;
+					} while (w != v);
+					components++;
+				}
+				if (depth > 0) {
+					int parent = calls[depth - 1];
+					if (low[v] < low[parent]) {
+						low[parent] = low[v];
+					}
+				}
+			}
+		}
+		return component;
+	}
+
+	/**
+	 * @return the number of strongly connected components
+	 */
+	public int componentCount() {
+		return this.memberOffsets.length - 1;
+	}
+
+	/**
+	 * @param key
+	 * @return the id of the component containing key
+	 * @throws NoSuchElementException if the key is not found in the graph
+	 */
+	public int componentOf(T key) throws NoSuchElementException {
+		int id = this.graph.idOf(key);
+		if (id == -1) {
+			throw new NoSuchElementException();
+		}
+		return this.component[id];
+	}
+
+	/**
+	 * @param id a vertex id
+	 * @return the id of the component containing that vertex
+	 */
+	int componentOfId(int id) {
+		return this.component[id];
+	}
+
+	/**
+	 * @param component a component id
+	 * @return the number of vertices in that component
+	 */
+	public int componentSize(int component) {
+		return this.memberOffsets[component + 1] - this.memberOffsets[component];
+	}
+
+	/**
+	 * @return the id of a component with the most vertices, or -1 if the graph is
+	 *         empty
+	 */
+	public int largestComponent() {
+		return this.largest;
+	}
+
+	/**
+	 * @param component a component id
+	 * @return the vertex ids in that component
+	 */
+	int[] memberIds(int component) {
+		int[] ids = new int[componentSize(component)];
+		System.arraycopy(this.members, this.memberOffsets[component], ids, 0, ids.length);
+		return ids;
+	}
+
+	/**
+	 * @param component a component id
+	 * @return the keys of the vertices in that component
+	 */
+	public Set<T> members(int component) {
+		Set<T> set = new HashSet<T>();
+		for (int i = this.memberOffsets[component]; i < this.memberOffsets[component + 1]; i++) {
+			set.add(this.graph.keyOf(this.members[i]));
+		}
+		return set;
+	}
+}
@@ -0,0 +1,180 @@
+package graphs;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maps the keys of a graph to dense int ids in [0, size()), in the order the
+ * keys were added, and back. Graphs resolve a key to its id once per
+ * operation and then work on ids alone.
+ *
+ * Lookups go through an open-addressing table of ids with linear probing,
+ * with each key's hash code cached next to it, so a probe compares ints and
+ * only calls equals on a hash match. Nothing is boxed, and there is no entry
+ * object per key. Keys cannot be removed.
+ *
+ * @param <T>
+ */
+public class VertexDictionary<T> {
+	private Object[] keys;
+	private int[] hashes;
+	/** Ids by hash, -1 for empty slots; kept at most half full. */
+	private int[] slots;
+	private int size;
+
+	/**
+	 * Creates a dictionary holding the given keys, with ids in iteration order.
+	 *
+	 * @param keys
+	 */
+	VertexDictionary(Collection<T> keys) {
+		int capacity = Math.max(4, keys.size());
+		this.keys = new Object[capacity];
+		this.hashes = new int[capacity];
+		this.slots = new int[Integer.highestOneBit(2 * capacity - 1) << 1];
+		Arrays.fill(this.slots, -1);
+		for (T key : keys) {
+			add(key);
+		}
+	}
+
+	private static int hash(Object key) {
+		int h = Objects.hashCode(key);
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return the slot holding key, or the empty slot where it would go
+	 */
+	private int slotOf(Object key, int hash) {
+		int mask = this.slots.length - 1;
+		int slot = hash & mask;
+		int id;
+		while ((id = this.slots[slot]) != -1) {
+			if (this.hashes[id] == hash && Objects.equals(this.keys[id], key)) {
+				break;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Adds a key if it is not already present.
+	 *
+	 * @param key
+	 * @return the id of the key
+	 */
+	int add(T key) {
+		int hash = hash(key);
+		int slot = slotOf(key, hash);
+		if (this.slots[slot] != -1) {
+			return this.slots[slot];
+		}
+		int id = this.size++;
+		if (id == this.keys.length) {
+			this.keys = Arrays.copyOf(this.keys, 2 * id);
+			this.hashes = Arrays.copyOf(this.hashes, 2 * id);
+		}
+		this.keys[id] = key;
+		this.hashes[id] = hash;
+		this.slots[slot] = id;
+		if (2 * this.size > this.slots.length) {
+			rehash();
+		}
+		return id;
+	}
+
+	private void rehash() {
+		this.slots = new int[2 * this.slots.length];
+		Arrays.fill(this.slots, -1);
+		int mask = this.slots.length - 1;
+		for (int id = 0; id < this.size; id++) {
+			int slot = this.hashes[id] & mask;
+			while (this.slots[slot] != -1) {
+				slot = (slot + 1) & mask;
+			}
+			this.slots[slot] = id;
+		}
+	}
+
+	/**
+	 * @return the number of keys
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param key
+	 * @return the id of key, or -1 if it is not in the dictionary
+	 */
+	public int idOf(Object key) {
+		return this.slots[slotOf(key, hash(key))];
+	}
+
+	/**
+	 * @param key
+	 * @return the id of key
+	 * @throws NoSuchElementException if the key is not in the dictionary
+	 */
+	public int requireId(Object key) throws NoSuchElementException {
+		int id = idOf(key);
+		if (id == -1) {
+			throw new NoSuchElementException();
+		}
+		return id;
+	}
+
+	/**
+	 * @param id
+	 * @return the key with the given id
+	 * @throws NoSuchElementException if no key has that id
+	 */
+	@SuppressWarnings("unchecked")
+	public T keyOf(int id) throws NoSuchElementException {
+		if (id < 0 || id >= this.size) {
+			throw new NoSuchElementException();
+		}
+		return (T) this.keys[id];
+	}
+
+	/**
+	 * @return a read-only view of the keys, iterated in id order
+	 */
+	public Set<T> keySet() {
+		return new AbstractSet<T>() {
+			@Override
+			public int size() {
+				return VertexDictionary.this.size;
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return idOf(o) != -1;
+			}
+
+			@Override
+			public Iterator<T> iterator() {
+				return new Iterator<T>() {
+					int next = 0;
+
+					@Override
+					public boolean hasNext() {
+						return this.next < VertexDictionary.this.size;
+					}
+
+					@Override
+					public T next() {
+						return keyOf(this.next++);
+					}
+				};
+			}
+		};
+	}
+}
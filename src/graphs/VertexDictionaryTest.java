@@ -0,0 +1,90 @@
+package graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Test cases for VertexDictionary.
+ */
+public class VertexDictionaryTest {
+
+	/**
+	 * Key whose hash codes all collide, to exercise probing.
+	 */
+	private static class Colliding {
+		final int value;
+
+		Colliding(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return 42;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Colliding && ((Colliding) o).value == this.value;
+		}
+	}
+
+	@Test
+	public void testIdsFollowInsertionOrder() {
+		List<String> keys = Arrays.asList("d", "a", "c", "b");
+		VertexDictionary<String> dictionary = new VertexDictionary<String>(keys);
+		assertEquals(4, dictionary.size());
+		for (int id = 0; id < keys.size(); id++) {
+			assertEquals(id, dictionary.idOf(keys.get(id)));
+			assertEquals(keys.get(id), dictionary.keyOf(id));
+		}
+		assertEquals(-1, dictionary.idOf("e"));
+		assertEquals(-1, dictionary.idOf(null));
+		assertEquals(2, dictionary.add("c"));
+		assertEquals(4, dictionary.add("e"));
+		assertEquals(Arrays.asList("d", "a", "c", "b", "e"), new ArrayList<String>(dictionary.keySet()));
+		assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c", "d", "e")), dictionary.keySet());
+		try {
+			dictionary.keyOf(5);
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+		try {
+			dictionary.requireId("f");
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testGrowsAndProbesPastCollisions() {
+		VertexDictionary<Colliding> colliding = new VertexDictionary<Colliding>(new ArrayList<Colliding>());
+		for (int i = 0; i < 300; i++) {
+			assertEquals(i, colliding.add(new Colliding(i)));
+		}
+		for (int i = 0; i < 300; i++) {
+			assertEquals(i, colliding.idOf(new Colliding(i)));
+		}
+		assertEquals(-1, colliding.idOf(new Colliding(300)));
+
+		VertexDictionary<Integer> ints = new VertexDictionary<Integer>(new ArrayList<Integer>());
+		for (int i = 0; i < 100000; i++) {
+			ints.add(i * 1024);
+		}
+		assertEquals(100000, ints.size());
+		assertEquals(99999, ints.idOf(99999 * 1024));
+		assertTrue("Expected: true", ints.keySet().contains(4096));
+		assertEquals(-1, ints.idOf(1));
+	}
+}
@@ -0,0 +1,262 @@
+package graphs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The vertex names of a page names file, one "index name" pair per line, read
+ * straight from its UTF-8 bytes. Each distinct name gets a dense vertex id in
+ * order of first appearance, and its bytes are appended to one byte arena, so
+ * the names of id v are arena[offsets[v]] .. arena[offsets[v + 1] - 1]. A
+ * String is only created when a name is asked for.
+ *
+ * The page index of every line is kept in a table from page index to vertex
+ * id, so edges given as page indices can be turned into vertex ids without
+ * any hashing, and pages can still be looked up by their original index.
+ * Repeated names share one id; if an index repeats, its last line wins.
+ */
+public class VertexNames {
+	private byte[] arena = new byte[1 << 16];
+	private int arenaLength;
+	private int[] offsets = new int[1025];
+	private int size;
+	private int[] indexToId = new int[0];
+	/** Open-addressing table of ids by name hash, -1 for empty slots. */
+	private int[] slots = new int[2048];
+
+	private VertexNames() {
+		Arrays.fill(this.slots, -1);
+	}
+
+	/**
+	 * Reads the names from the given file. Lines that do not start with an
+	 * index followed by a space are skipped.
+	 *
+	 * @param file
+	 * @return the names
+	 * @throws IOException if the file cannot be read
+	 */
+	public static VertexNames read(File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return read(in);
+		}
+	}
+
+	/**
+	 * @return names read from an empty file
+	 */
+	static VertexNames empty() {
+		return new VertexNames();
+	}
+
+	static VertexNames read(InputStream in) throws IOException {
+		final int INDEX = 0, NAME = 1, SKIP = 2;
+		VertexNames names = new VertexNames();
+		byte[] buffer = new byte[1 << 16];
+		int state = INDEX;
+		long index = 0;
+		int digits = 0;
+		int count;
+		while ((count = in.read(buffer)) > 0) {
+			for (int i = 0; i < count; i++) {
+				byte c = buffer[i];
+				if (c == '\n') {
+					if (state == NAME) {
+						names.endLine((int) index);
+					}
+					state = INDEX;
+					index = 0;
+					digits = 0;
+				} else if (state == INDEX) {
+					if (c >= '0' && c <= '9' && digits < 10) {
+						index = 10 * index + (c - '0');
+						digits++;
+					} else if (c == ' ' && digits > 0 && index <= Integer.MAX_VALUE) {
+						state = NAME;
+					} else {
+						state = SKIP;
+					}
+				} else if (state == NAME) {
+					names.append(c);
+				}
+			}
+		}
+		if (state == NAME) {
+			names.endLine((int) index);
+		}
+		names.offsets = Arrays.copyOf(names.offsets, names.size + 1);
+		names.arena = Arrays.copyOf(names.arena, names.arenaLength);
+		return names;
+	}
+
+	private void append(byte c) {
+		if (this.arenaLength == this.arena.length) {
+			this.arena = Arrays.copyOf(this.arena, 2 * this.arenaLength);
+		}
+		this.arena[this.arenaLength++] = c;
+	}
+
+	/**
+	 * Finishes the name that runs from offsets[size] to the end of the arena,
+	 * either as a new id or by dropping its bytes if the name is already known.
+	 */
+	private void endLine(int index) {
+		int start = this.offsets[this.size];
+		if (this.arenaLength > start && this.arena[this.arenaLength - 1] == '\r') {
+			this.arenaLength--;
+		}
+		int hash = hash(this.arena, start, this.arenaLength);
+		int mask = this.slots.length - 1;
+		int slot = hash & mask;
+		int id;
+		while ((id = this.slots[slot]) != -1 && !sameName(id, this.arena, start, this.arenaLength)) {
+			slot = (slot + 1) & mask;
+		}
+		if (id != -1) {
+			this.arenaLength = start;
+		} else {
+			id = this.size++;
+			this.slots[slot] = id;
+			if (this.size + 1 == this.offsets.length) {
+				this.offsets = Arrays.copyOf(this.offsets, 2 * this.offsets.length);
+			}
+			this.offsets[this.size] = this.arenaLength;
+			if (2 * this.size > this.slots.length) {
+				rehash();
+			}
+		}
+		if (index >= this.indexToId.length) {
+			int length = this.indexToId.length;
+			this.indexToId = Arrays.copyOf(this.indexToId, Math.max(2 * length, index + 1));
+			Arrays.fill(this.indexToId, length, this.indexToId.length, -1);
+		}
+		this.indexToId[index] = id;
+	}
+
+	private void rehash() {
+		this.slots = new int[2 * this.slots.length];
+		Arrays.fill(this.slots, -1);
+		int mask = this.slots.length - 1;
+		for (int id = 0; id < this.size; id++) {
+			int slot = hash(this.arena, this.offsets[id], this.offsets[id + 1]) & mask;
+			while (this.slots[slot] != -1) {
+				slot = (slot + 1) & mask;
+			}
+			this.slots[slot] = id;
+		}
+	}
+
+	private static int hash(byte[] bytes, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + bytes[i];
+		}
+		return h ^ (h >>> 16);
+	}
+
+	private boolean sameName(int id, byte[] bytes, int start, int end) {
+		int from = this.offsets[id];
+		if (this.offsets[id + 1] - from != end - start) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (this.arena[from++] != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of distinct names
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param name
+	 * @return the vertex id of the name, or -1 if it is not one of the names
+	 */
+	int idOf(String name) {
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		int slot = hash(bytes, 0, bytes.length) & (this.slots.length - 1);
+		int id;
+		while ((id = this.slots[slot]) != -1 && !sameName(id, bytes, 0, bytes.length)) {
+			slot = (slot + 1) & (this.slots.length - 1);
+		}
+		return id;
+	}
+
+	/**
+	 * @param id a vertex id
+	 * @return the name with that id
+	 */
+	String name(int id) {
+		int start = this.offsets[id];
+		return new String(this.arena, start, this.offsets[id + 1] - start, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the names, indexed by vertex id, decoded as they are read
+	 */
+	List<String> names() {
+		return new AbstractList<String>() {
+			@Override
+			public String get(int id) {
+				if (id < 0 || id >= VertexNames.this.size) {
+					throw new IndexOutOfBoundsException();
+				}
+				return name(id);
+			}
+
+			@Override
+			public int size() {
+				return VertexNames.this.size;
+			}
+		};
+	}
+
+	/**
+	 * @param index a page index from the file
+	 * @return the vertex id of that page, or -1 if the file has no such index
+	 */
+	int idOfIndex(int index) {
+		return index >= 0 && index < this.indexToId.length ? this.indexToId[index] : -1;
+	}
+
+	/**
+	 * @return the table from page index to vertex id, with -1 for indices not in
+	 *         the file; shared, not copied
+	 */
+	int[] indexToIdTable() {
+		return this.indexToId;
+	}
+
+	/**
+	 * @param index a page index from the file
+	 * @return the name of that page
+	 * @throws NoSuchElementException if the file has no such index
+	 */
+	public String nameOfIndex(int index) throws NoSuchElementException {
+		int id = idOfIndex(index);
+		if (id == -1) {
+			throw new NoSuchElementException();
+		}
+		return name(id);
+	}
+
+	/**
+	 * @return the number of bytes used by the names themselves
+	 */
+	public int nameBytes() {
+		return this.arenaLength;
+	}
+}
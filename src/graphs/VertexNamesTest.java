@@ -0,0 +1,56 @@
+package graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Test cases for VertexNames.
+ */
+public class VertexNamesTest {
+
+	private VertexNames read(String contents) throws IOException {
+		return VertexNames.read(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void testReadsNamesInOrderOfFirstAppearance() throws IOException {
+		VertexNames names = read("17 Zo\u00eb Kravitz\n4 Bj\u00f6rk\r\n9 Alan Turing, Jr.\n\nnot a line\n 5 Leading space\n8 \u738b\u83f2");
+		assertEquals(4, names.size());
+		assertEquals(Arrays.asList("Zo\u00eb Kravitz", "Bj\u00f6rk", "Alan Turing, Jr.", "\u738b\u83f2"), names.names());
+		assertEquals("Bj\u00f6rk", names.nameOfIndex(4));
+		assertEquals(3, names.idOfIndex(8));
+		assertEquals(-1, names.idOfIndex(5));
+		assertEquals(-1, names.idOfIndex(1000));
+		assertEquals(2, names.idOf("Alan Turing, Jr."));
+		assertEquals(-1, names.idOf("Alan Turing"));
+		try {
+			names.nameOfIndex(3);
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testRepeatedNamesShareAnId() throws IOException {
+		StringBuilder contents = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			contents.append(i).append(" Person ").append(i % 2500).append('\n');
+		}
+		VertexNames names = read(contents.toString());
+		assertEquals(2500, names.size());
+		for (int i = 0; i < 10000; i++) {
+			assertEquals(i % 2500, names.idOfIndex(i));
+		}
+		assertEquals("Person 2499", names.name(2499));
+		assertEquals(2499, names.idOf("Person 2499"));
+	}
+}
@@ -1,33 +1,36 @@
 package graphs;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 public class WikiSurfing {
+	static final String PAGE_NAMES_FILE_NAME = "../GraphSurfingData/wiki-livingpeople-names.txt";
+	static final String LINKS_FILE_NAME = "../GraphSurfingData/wiki-livingpeople-links.txt";
+	static final String SNAPSHOT_FILE_NAME = "../GraphSurfingData/wiki-livingpeople.snapshot";
 
 	/**
 	 * Generates the Wikipedia graph for the Living People category, using adjacency lists.
 	 * @return graph
 	 */
 	public static AdjacencyListGraph<String> wikiLivingPeopleGraphAL(boolean verbose) {
-		String pageNamesFileName = "../GraphSurfingData/wiki-livingpeople-names.txt";
-		String linksFileName = "../GraphSurfingData/wiki-livingpeople-links.txt";
-		Map<Integer,String> indexToKey = new HashMap<Integer,String>();
-		Map<String,Integer> keyToIndex = new HashMap<String,Integer>();
 		if (verbose) {
 			System.out.println("Reading vertices");
 		}
-		readVertices(indexToKey, keyToIndex, pageNamesFileName);
-		AdjacencyListGraph<String> graph = new AdjacencyListGraph<String>(keyToIndex.keySet());
+		VertexNames names;
+		try {
+			names = readVertices(PAGE_NAMES_FILE_NAME, verbose);
+		} catch (IOException e) {
+			System.err.printf("Could not read file %s: %s%n",PAGE_NAMES_FILE_NAME,e.getMessage());
+			names = VertexNames.empty();
+		}
+		AdjacencyListGraph<String> graph = new AdjacencyListGraph<String>(new HashSet<String>(names.names()));
 		if (verbose) {
 			System.out.println("Reading edges");
 		}
-		readEdges(graph, indexToKey, linksFileName);
+		readEdges(graph, names, LINKS_FILE_NAME, verbose);
 		if (verbose) {
 			System.out.printf("Constructed LivingPeople graph with %d vertices and %d edges%n",graph.size(),graph.numEdges());
 		}
@@ -36,30 +39,135 @@ public class WikiSurfing {
 	
 	
 	/**
-	 * Reads in the page names (vertex labels). 
-	 * @param indexToKey, a map to populate with index-to-key translations
-	 * @param keyToIndex, a map to populate with key-to-index translations
-	 * @param pageNamesFileName, the file containing all keys and associated indices
+	 * Generates the Wikipedia graph for the Living People category, in compressed
+	 * sparse row form. The graph is loaded from a binary snapshot next to the
+	 * text files when there is one newer than both of them; otherwise it is built
+	 * from the text files and the snapshot is written for next time. If the text
+	 * files cannot be read the graph is empty and no snapshot is written.
+	 * @return graph
 	 */
-	private static void readVertices(Map<Integer,String> indexToKey, 
-			Map<String,Integer> keyToIndex, String pageNamesFileName) {
-		Scanner sc = null;
+	public static CsrGraph<String> wikiLivingPeopleGraphCSR(boolean verbose) {
+		File snapshotFile = new File(SNAPSHOT_FILE_NAME);
+		if (snapshotIsCurrent(snapshotFile)) {
+			try {
+				CsrGraph<String> graph = GraphSnapshot.read(snapshotFile);
+				if (verbose) {
+					System.out.printf("Loaded LivingPeople CSR graph with %d vertices and %d edges from %s%n",
+							graph.size(),graph.numEdges(),snapshotFile);
+				}
+				return graph;
+			} catch (IOException e) {
+				System.err.printf("Ignoring snapshot: %s%n",e.getMessage());
+			}
+		}
+		CsrGraph<String> graph;
+		try {
+			graph = wikiLivingPeopleGraphCSRFromText(verbose);
+		} catch (IOException e) {
+			System.err.printf("Could not read graph: %s%n",e.getMessage());
+			return new CsrGraph<String>(new ArrayList<String>(), new int[0], new int[0], 0);
+		}
 		try {
-			sc = new Scanner(new File(pageNamesFileName), "utf-8");
-		} catch (FileNotFoundException e) {
-			System.err.printf("Could not find file %s%n",pageNamesFileName);
-		}
-		// Searches for a number (-> index), followed by a space, followed by the remainder of the line (-> pageName)
-		Pattern pageNamePattern = Pattern.compile("(\\d*)( )(.*)"); 
-		while (sc.hasNextLine()) {
-			Matcher matcher = pageNamePattern.matcher(sc.nextLine());
-			if (matcher.find()) {
-				int index = Integer.parseInt(matcher.group(1));
-				String pageName = matcher.group(3);
-				indexToKey.put(index, pageName);
-				keyToIndex.put(pageName, index);
+			GraphSnapshot.write(graph, snapshotFile);
+		} catch (IOException e) {
+			System.err.printf("Could not write snapshot %s: %s%n",snapshotFile,e.getMessage());
+		}
+		return graph;
+	}
+	
+	
+	/**
+	 * Opens the Wikipedia graph for the Living People category by memory-mapping
+	 * its binary snapshot, so the edges are never copied onto the heap. The
+	 * snapshot is first rebuilt from the text files if it is missing, older than
+	 * them, or cannot be mapped.
+	 * @return graph
+	 * @throws IOException if the text files cannot be read, or the snapshot
+	 *         cannot be written or mapped
+	 */
+	public static MappedCsrGraph wikiLivingPeopleGraphMapped(boolean verbose) throws IOException {
+		File snapshotFile = new File(SNAPSHOT_FILE_NAME);
+		MappedCsrGraph graph = null;
+		if (snapshotIsCurrent(snapshotFile)) {
+			try {
+				graph = GraphSnapshot.map(snapshotFile);
+			} catch (IOException e) {
+				System.err.printf("Ignoring snapshot: %s%n",e.getMessage());
 			}
 		}
+		if (graph == null) {
+			GraphSnapshot.write(wikiLivingPeopleGraphCSRFromText(verbose), snapshotFile);
+			graph = GraphSnapshot.map(snapshotFile);
+		}
+		if (verbose) {
+			System.out.printf("Mapped LivingPeople graph with %d vertices and %d edges from %s%n",
+					graph.size(),graph.numEdges(),snapshotFile);
+		}
+		return graph;
+	}
+	
+	
+	private static boolean snapshotIsCurrent(File snapshotFile) {
+		File names = new File(PAGE_NAMES_FILE_NAME);
+		File links = new File(LINKS_FILE_NAME);
+		if (!names.isFile() || !links.isFile()) {
+			return false;
+		}
+		long textModified = Math.max(names.lastModified(), links.lastModified());
+		return snapshotFile.exists() && snapshotFile.lastModified() >= textModified;
+	}
+	
+	
+	/**
+	 * Generates the Wikipedia graph for the Living People category, in compressed
+	 * sparse row form, from the text files. The edges go straight from the links
+	 * file into int arrays, without passing through a mutable graph first.
+	 * @return graph
+	 * @throws IOException if either text file cannot be read
+	 */
+	static CsrGraph<String> wikiLivingPeopleGraphCSRFromText(boolean verbose) throws IOException {
+		if (verbose) {
+			System.out.println("Reading vertices");
+		}
+		VertexNames names = readVertices(PAGE_NAMES_FILE_NAME, verbose);
+		List<String> keys = new ArrayList<String>(names.names());
+		if (verbose) {
+			System.out.println("Reading edges");
+		}
+		int[][] edges = readEdgeIds(names.indexToIdTable(), LINKS_FILE_NAME, Runtime.getRuntime().availableProcessors(),
+				verbose);
+		CsrGraph<String> graph = new CsrGraph<String>(keys, edges[0], edges[1], edges[0].length);
+		if (verbose) {
+			System.out.printf("Constructed LivingPeople CSR graph with %d vertices and %d edges%n",graph.size(),graph.numEdges());
+		}
+		return graph;
+	}
+	
+	
+	/**
+	 * Reads in the page names of the Living People category.
+	 * @return the names, with their vertex ids and page indices
+	 * @throws IOException if the names file cannot be read
+	 */
+	public static VertexNames wikiLivingPeopleNames() throws IOException {
+		return readVertices(PAGE_NAMES_FILE_NAME, false);
+	}
+	
+	
+	/**
+	 * Reads in the page names (vertex labels). 
+	 * @param pageNamesFileName, the file containing all keys and associated indices
+	 * @return the names, with a vertex id for each distinct name
+	 * @throws IOException if the file cannot be read
+	 */
+	static VertexNames readVertices(String pageNamesFileName, boolean verbose) throws IOException {
+		long start = System.nanoTime();
+		VertexNames names = VertexNames.read(new File(pageNamesFileName));
+		if (verbose) {
+			System.out.printf("Read %d names (%d bytes) in %.1f ms%n",
+					names.size(),names.nameBytes(),(System.nanoTime() - start) / 1e6);
+		}
+		return names;
 	}
 		
 		
@@ -67,27 +175,55 @@ public class WikiSurfing {
 	 * Reads in the edges from the given file and adds them to the graph.
 	 * Only adds edges for which there exist vertices already in the graph.
 	 * @param graph, the graph to add edges to
-	 * @param indexToKey, a map from indices to keys
+	 * @param names, the page names, with the vertex id of each page index
 	 * @param linksFileName, the file of index pairs to read edges from
 	 */
-	private static void readEdges(Graph<String> graph, Map<Integer,String> indexToKey, String linksFileName) {
-		/*
-		 * Read in the edges
-		 */
-		Scanner sc = null;
-		try {
-			sc = new Scanner(new File(linksFileName));
-		} catch (FileNotFoundException e) {
-			System.err.printf("Could not find file %s%n",linksFileName);
-		}
-		while (sc.hasNext()) {
-			Integer fromInd = sc.nextInt();
-			String from = indexToKey.get(fromInd);
-			Integer toInd = sc.nextInt();
-			String to = indexToKey.get(toInd);
-			if (graph.hasVertex(to) && graph.hasVertex(from)) {
-				graph.addEdge(from, to);
+	private static void readEdges(Graph<String> graph, VertexNames names, String linksFileName,
+			boolean verbose) {
+		// translate the table from page indices to the graph's own vertex ids
+		int[] nameIdToGraphId = new int[names.size()];
+		for (int id = 0; id < nameIdToGraphId.length; id++) {
+			nameIdToGraphId[id] = graph.idOf(names.name(id));
+		}
+		int[] indexToId = names.indexToIdTable().clone();
+		for (int i = 0; i < indexToId.length; i++) {
+			if (indexToId[i] != -1) {
+				indexToId[i] = nameIdToGraphId[indexToId[i]];
 			}
 		}
+		int[][] edges;
+		try {
+			edges = readEdgeIds(indexToId, linksFileName, Runtime.getRuntime().availableProcessors(), verbose);
+		} catch (IOException e) {
+			System.err.printf("Could not read file %s: %s%n",linksFileName,e.getMessage());
+			return;
+		}
+		BulkAddResult result = graph.addEdgesById(edges[0], edges[1]);
+		if (verbose) {
+			System.out.printf("Inserted edges: %s%n",result);
+		}
+	}
+	
+	
+	/**
+	 * Reads in the edges from the given file as pairs of vertex ids, parsing
+	 * chunks of the file in parallel. Only keeps edges whose endpoints both
+	 * have an id.
+	 * @param indexToId, the vertex id of each index, or -1 for none
+	 * @param linksFileName, the file of index pairs to read edges from
+	 * @param parallelism, the number of threads to parse with
+	 * @return two arrays of equal length, the source ids and the target ids
+	 * @throws IOException if the file cannot be read
+	 */
+	static int[][] readEdgeIds(int[] indexToId, String linksFileName, int parallelism, boolean verbose)
+			throws IOException {
+		long start = System.nanoTime();
+		int[][] edges = EdgeListParser.parse(new File(linksFileName), indexToId, parallelism);
+		if (verbose) {
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("Parsed %d edges in %.1f ms with %d threads (%.1f million edges/s)%n",
+					edges[0].length,seconds * 1e3,parallelism,edges[0].length / seconds / 1e6);
+		}
+		return edges;
 	}
 }